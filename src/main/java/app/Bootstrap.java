@@ -7,6 +7,8 @@ import controllers.DashboardController;
 import controllers.MediaController;
 import controllers.api.CategoriesControllerV1;
 import controllers.api.ItemsControllerV1;
+import controllers.api.ResyncControllerV1;
+import controllers.api.SyncControllerV2;
 import controllers.api.UserControllerV1;
 import de.svenkubiak.http.Http;
 import io.mangoo.interfaces.MangooBootstrap;
@@ -14,8 +16,15 @@ import io.mangoo.routing.Bind;
 import io.mangoo.routing.On;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import services.BackgroundService;
 import services.DataService;
+import services.ExportService;
+import services.HashingService;
+import services.JobService;
+import services.JobWorker;
 import services.MediaService;
+import services.PreviewService;
+import services.RevocationService;
 
 import java.util.Objects;
 
@@ -23,11 +32,33 @@ import java.util.Objects;
 public class Bootstrap implements MangooBootstrap {
     private final DataService dataService;
     private final MediaService mediaService;
+    private final ExportService exportService;
+    private final JobService jobService;
+    private final JobWorker jobWorker;
+    private final BackgroundService backgroundService;
+    private final HashingService hashingService;
+    private final PreviewService previewService;
+    private final RevocationService revocationService;
 
     @Inject
-    public Bootstrap(DataService dataService, MediaService mediaService) {
+    public Bootstrap(DataService dataService,
+                     MediaService mediaService,
+                     ExportService exportService,
+                     JobService jobService,
+                     JobWorker jobWorker,
+                     BackgroundService backgroundService,
+                     HashingService hashingService,
+                     PreviewService previewService,
+                     RevocationService revocationService) {
         this.dataService = Objects.requireNonNull(dataService, Required.DATA_SERVICE);
         this.mediaService = Objects.requireNonNull(mediaService, Required.MEDIA_SERVICE);
+        this.exportService = Objects.requireNonNull(exportService, Required.EXPORT_SERVICE);
+        this.jobService = Objects.requireNonNull(jobService, Required.JOB_SERVICE);
+        this.jobWorker = Objects.requireNonNull(jobWorker, Required.JOB_WORKER);
+        this.backgroundService = Objects.requireNonNull(backgroundService, Required.BACKGROUND_SERVICE);
+        this.hashingService = Objects.requireNonNull(hashingService, Required.HASHING_SERVICE);
+        this.previewService = Objects.requireNonNull(previewService, Required.PREVIEW_SERVICE);
+        this.revocationService = Objects.requireNonNull(revocationService, Required.REVOCATION_SERVICE);
     }
 
     @Override
@@ -59,7 +90,9 @@ public class Bootstrap implements MangooBootstrap {
                 On.get().to("/dashboard/profile/confirm-email").respondeWith("confirmEmail"),
                 On.get().to("/dashboard/io").respondeWith("io"),
                 On.post().to("/dashboard/io/importer").respondeWith("importer"),
-                On.post().to("/dashboard/io/exporter").respondeWith("exporter")
+                On.post().to("/dashboard/io/exporter").respondeWith("exporter"),
+                On.post().to("/dashboard/io/export").respondeWith("doExport"),
+                On.get().to("/dashboard/io/download").respondeWith("download")
         );
 
         Bind.controller(AuthenticationController.class).withRoutes(
@@ -90,10 +123,20 @@ public class Bootstrap implements MangooBootstrap {
                 On.get().to("/api/v1/categories").respondeWith("list"),
                 On.put().to("/api/v1/categories").respondeWith("edit"),
                 On.post().to("/api/v1/categories/poll").respondeWith("poll"),
+                On.post().to("/api/v1/categories/changes").respondeWith("changes"),
                 On.post().to("/api/v1/categories").respondeWith("add"),
                 On.delete().to("/api/v1/categories/{uid}").respondeWith("delete")
         );
 
+        Bind.controller(ResyncControllerV1.class).withRoutes(
+                On.get().to("/api/v1/resync").respondeWith("progress"),
+                On.post().to("/api/v1/resync").respondeWith("start")
+        );
+
+        Bind.controller(SyncControllerV2.class).withRoutes(
+                On.get().to("/api/v2/sync").respondeWith("sync")
+        );
+
         Bind.controller(UserControllerV1.class).withRoutes(
                 On.post().to("/api/v1/users/login").respondeWith("login"),
                 On.post().to("/api/v1/users/logout").respondeWith("logout"),
@@ -116,11 +159,23 @@ public class Bootstrap implements MangooBootstrap {
     public void applicationStarted() {
         dataService.upgrade();
         dataService.indexify();
+        dataService.reconcileItemCounts();
         mediaService.indexify();
+        exportService.indexify();
+        jobService.indexify();
+        previewService.indexify();
+        revocationService.indexify();
+        revocationService.start();
+        jobWorker.start();
     }
 
     @Override
     public void applicationStopped() {
+        jobWorker.stop();
+        revocationService.stop();
+        backgroundService.shutdown();
+        hashingService.shutdown();
+        mediaService.close();
         Http.shutdown();
     }
 }
\ No newline at end of file
@@ -3,7 +3,13 @@ package constants;
 public final class Collections {
     public static final String ACTIONS = "actions";
     public static final String CATEGORIES = "categories";
+    public static final String CHANGES = "changes";
     public static final String ITEMS = "items";
+    public static final String JOBS = "jobs";
+    public static final String PREVIEWS = "previews";
+    public static final String REVOCATIONS = "revocations";
+    public static final String REVOCATIONS_FEED = "revocations.feed";
+    public static final String SETTINGS = "settings";
     public static final String USERS = "users";
     public static final String TOKENS = "tokens";
 
@@ -5,32 +5,61 @@ public final class Const {
     public static final String ACTION = "action";
     public static final String ARCHIVE_UID = "archiveUid";
     public static final String ATID = "atid";
+    public static final String ATTEMPTS = "attempts";
+    public static final String CATEGORY = "category";
     public static final String CATEGORY_UID = "categoryUid";
     public static final String CHALLENGE_TOKEN = "challengeToken";
+    public static final String CHECKED = "checked";
+    public static final String CHECKPOINT = "checkpoint";
+    public static final String CONTENT_TYPE = "contentType";
     public static final String COUNT = "count";
+    public static final String CURRENT = "current";
     public static final String DEFAULT_LANGUAGE = "en";
     public static final String EMAIL_PREFIX = "[Filed Papers]";
+    public static final String ERROR = "error";
+    public static final String EXPIRES = "expires";
+    public static final String FILEDPAPERS_CHUNKS = "filedpapers.chunks";
     public static final String FILEDPAPERS_FILES = "filedpapers.files";
+    public static final String FILES_ID = "files_id";
+    public static final String FID = "fid";
+    public static final String FINISHED = "finished";
     public static final String GENERAL_ERROR = "An error occurred. Please try again.";
-    public static final String IMAGE_CACHE_PREFIX = "image-cache-";
+    public static final String IMPORT_UID = "importUid";
     public static final String INBOX = "Inbox";
+    public static final String ITEM_COUNT = "itemCount";
+    public static final String ITEM_UID = "itemUid";
+    public static final String KEY = "key";
+    public static final String LOCKED_UNTIL = "lockedUntil";
     public static final String MEDIA_UID = "mediaUid";
+    public static final String METADATA_CONTENT_TYPE = "metadata.contentType";
+    public static final String METADATA_LENGTH = "metadata.length";
+    public static final String METADATA_REFS = "metadata.refs";
+    public static final String METADATA_SHA256 = "metadata.sha256";
     public static final String METADATA_UID = "metadata.uid";
     public static final String METADATA_USER_UID = "metadata.userUid";
     public static final String MFA_FALLBACK = "mfa-fallback";
     public static final String NAME = "name";
     public static final String NONCE = "nonce";
+    public static final String NOT_BEFORE = "notBefore";
     public static final String OTP = "otp";
+    public static final String OWNER = "owner";
     public static final String PEPPER = "pepper";
     public static final String PLACEHOLDER_IMAGE = "/assets/images/placeholder.svg";
+    public static final String PROCESSED = "processed";
     public static final String REFRESH_TOKEN = "refreshToken";
     public static final String ROLE = "role";
+    public static final String SHA256 = "sha256";
+    public static final String STATUS = "status";
+    public static final String TIMESTAMP = "timestamp";
+    public static final String TOKEN = "token";
     public static final String TOAST_ERROR = "toasterror";
     public static final String TOAST_SUCCESS = "toastsuccess";
+    public static final String TOTAL = "total";
     public static final String TRASH = "Trash";
     public static final String UID = "uid";
     public static final String USERNAME = "username";
     public static final String USER_UID = "userUid";
+    public static final String VERSION = "version";
 
     private Const() {}
 }
@@ -1,12 +1,28 @@
 package constants;
 
 public final class Invalid {
+    public static final String ATTEMPTS = "attempts must be greater than 0";
+    public static final String BUDGET = "budget must be greater than 0";
+    public static final String CACHE_SIZE = "cacheSize must be greater than 0";
     public static final String CATEGORY_NAME = "categoryName is null or invalid";
     public static final String CATEGORY_UID = "categoryUid is null or invalid";
+    public static final String CURSOR = "cursor is invalid";
+    public static final String FETCH_LIMIT = "fetchLimit must be between 1 and 16";
+    public static final String INTERVAL = "interval must not be negative";
     public static final String ITEM_UID = "itemUid is null or invalid";
+    public static final String MAX_OBJECT_SIZE = "maxObjectSize must be greater than 0";
     public static final String OTP = "otp is null or invalid";
+    public static final String PARALLELISM = "parallelism must be greater than 0";
+    public static final String QUEUE = "queue must be greater than 0";
+    public static final String THREADS = "threads must be greater than 0";
+    public static final String TIMEOUT = "timeout must be greater than 0";
+    public static final String TTL = "ttl must be greater than 0";
     public static final String URL = "url is null or invalid";
+    public static final String USER_LIMIT = "userLimit must be greater than 0";
     public static final String USER_UID = "userUid is null or invalid";
+    public static final String WAITERS = "waiters must be greater than 0";
+    public static final String WINDOW = "window must be greater than 0";
+    public static final String WORKERS = "workers must be greater than 0";
 
     private Invalid() {}
 }
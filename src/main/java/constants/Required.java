@@ -4,43 +4,77 @@ public final class Required {
     public static final String ACTION = "action can not be null";
     public static final String APPLICATION_URL = "applicationUrl can not be null";
     public static final String AUTHENTICATION_SERVICE = "authenticationService can not be null";
+    public static final String BACKGROUND_SERVICE = "backgroundService can not be null";
+    public static final String BOOKMARK = "bookmark can not be null";
     public static final String CACHE = "cache can not be null";
     public static final String CATEGORIES = "categories can not be null";
+    public static final String CATEGORY = "category can not be null";
     public static final String CATEGORY_NAME = "name can not be null";
     public static final String CATEGORY_UID = "categoryUid can not be null";
+    public static final String CHANGE_SERVICE = "changeService can not be null";
+    public static final String CLAIMS = "claims can not be null";
     public static final String CONFIG = "config can not be null";
+    public static final String CONSUMER = "consumer can not be null";
+    public static final String CONTENT_TYPE = "contentType can not be null";
     public static final String COOKIE_NAME = "cookieName can not be null";
     public static final String CREATED_AT = "createdAt can not be null";
     public static final String DATA = "data can not be null";
     public static final String DATA_SERVICE = "dataService can not be null";
     public static final String DATASTORE = "database can not be null";
+    public static final String DIRECTORY = "directory can not be null";
+    public static final String DURATION = "duration can not be null";
+    public static final String EXPIRES = "expires can not be null";
+    public static final String EXPORT_SERVICE = "exportService can not be null";
+    public static final String FOLDER = "folder can not be null";
     public static final String FROM = "from can not be null";
+    public static final String HASHING_SERVICE = "hashingService can not be null";
     public static final String ID = "id can not be null";
     public static final String IMAGE = "image can not be null";
+    public static final String IMPORT_SERVICE = "importService can not be null";
+    public static final String INPUT = "input can not be null";
+    public static final String ITEM = "item can not be null";
+    public static final String ITEM_UID = "itemUid can not be null";
+    public static final String ITEM_UIDS = "itemUids can not be null";
     public static final String ITEMS = "items can not be null";
+    public static final String JOB = "job can not be null";
+    public static final String JOB_SERVICE = "jobService can not be null";
+    public static final String JOB_WORKER = "jobWorker can not be null";
+    public static final String KEY = "key can not be null";
     public static final String LANGUAGE = "language can not be null";
     public static final String LOGIN_REDIRECT = "loginRedirect can not be null";
     public static final String MAX_SIZE = "exceeds max size of data";
     public static final String MEDIA_SERVICE = "mediaService can not be null";
     public static final String MEDIA_UID = "mediaUid can not be null";
+    public static final String MEDIA_UIDS = "mediaUids can not be null";
     public static final String MESSAGE = "message can not be null";
     public static final String MESSAGES = "messages can not be null";
     public static final String NAME = "name can not be null";
     public static final String NOTIFICATION_SERVICE = "notificationService can not be null";
     public static final String OBJECT = "object can not be null";
     public static final String OBJECT_ID = "objectId can not be null";
+    public static final String OUTPUT = "output can not be null";
     public static final String PASSWORD = "password can not be null";
+    public static final String PREVIEW_SERVICE = "previewService can not be null";
+    public static final String PROXIES = "proxies can not be null";
+    public static final String RANGE = "range can not be null";
     public static final String REQUEST = "request can not be null";
     public static final String RESPONSE = "response can not be null";
+    public static final String RESYNC_SERVICE = "resyncService can not be null";
+    public static final String REVOCATION_SERVICE = "revocationService can not be null";
     public static final String ROLE = "role can not be null";
     public static final String SECRET = "secret can not be null";
+    public static final String TASK = "task can not be null";
+    public static final String THUMBNAIL = "thumbnail can not be null";
+    public static final String TIMESTAMP = "timestamp can not be null";
     public static final String TITLE = "title can not be null";
     public static final String TOKEN = "token can not be null";
+    public static final String TYPE = "type can not be null";
     public static final String UID = "uid can not be null";
     public static final String URL = "url can not be null";
     public static final String USER_UID = "userUid can not be null";
     public static final String USERNAME = "username can not be null";
     public static final String VALUE = "value can not be null";
+    public static final String WRITER = "writer can not be null";
 
     private Required() {}
 }
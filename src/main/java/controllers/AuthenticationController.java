@@ -19,6 +19,7 @@ import models.User;
 import models.enums.Role;
 import models.enums.Type;
 import services.DataService;
+import services.HashingService;
 import services.NotificationService;
 import utils.Utils;
 
@@ -26,6 +27,7 @@ import java.util.Objects;
 
 public class AuthenticationController {
     private final DataService dataService;
+    private final HashingService hashingService;
     private final NotificationService notificationService;
     private final Config config;
     private final Messages messages;
@@ -34,12 +36,14 @@ public class AuthenticationController {
 
     @Inject
     public AuthenticationController(DataService dataService,
+                                    HashingService hashingService,
                                     NotificationService notificationService,
                                     Config config,
                                     Messages messages,
                                     @Named("application.registration") boolean registration,
                                     @Named("authentication.redirect.login") String authRedirect) {
         this.dataService = Objects.requireNonNull(dataService, Required.DATA_SERVICE);
+        this.hashingService = Objects.requireNonNull(hashingService, Required.HASHING_SERVICE);
         this.notificationService = Objects.requireNonNull(notificationService, Required.NOTIFICATION_SERVICE);
         this.config = Objects.requireNonNull(config, Required.CONFIG);
         this.messages = Objects.requireNonNull(messages, Required.MESSAGES);
@@ -63,7 +67,7 @@ public class AuthenticationController {
     }
 
     @FilterWith(CsrfFilter.class)
-    public Response doLogin(Flash flash, Form form, Authentication authentication) {
+    public Response doLogin(Request request, Flash flash, Form form, Authentication authentication) {
         form.expectValue("username", messages.get("validation.required.username"));
         form.expectValue("password", messages.get("validation.required.password"));
         form.expectEmail("username", messages.get("validation.required.email"));
@@ -77,7 +81,17 @@ public class AuthenticationController {
             Boolean rememberme = form.getBoolean("rememberme").orElse(Boolean.FALSE);
 
             var user = dataService.findUser(username);
-            if (user != null && authentication.isValidLogin(user.getUid(), password, user.getSalt(), user.getPassword())) {
+            var valid = hashingService.verify(username, hashingService.clientIp(request),
+                    () -> user != null && authentication.isValidLogin(user.getUid(), password, user.getSalt(), user.getPassword()));
+
+            if (valid.isEmpty()) {
+                flash.put(Const.TOAST_ERROR, messages.get("toast.throttled"));
+                form.keep();
+
+                return Response.redirect("/auth/login");
+            }
+
+            if (valid.get()) {
                 authentication.login(user.getUid());
                 authentication.rememberMe(rememberme);
                 authentication.twoFactorAuthentication(user.isMfa());
@@ -10,25 +10,31 @@ import io.mangoo.routing.Response;
 import io.mangoo.routing.bindings.Authentication;
 import io.mangoo.routing.bindings.Flash;
 import io.mangoo.routing.bindings.Form;
+import io.mangoo.routing.bindings.Request;
 import io.mangoo.routing.bindings.Session;
 import io.mangoo.utils.CommonUtils;
 import io.mangoo.utils.TotpUtils;
+import io.undertow.util.Headers;
+import io.undertow.util.StatusCodes;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import models.Action;
-import models.Item;
 import models.enums.Type;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.logging.log4j.util.Strings;
+import services.ChangeService;
 import services.DataService;
+import services.ExportService;
+import services.HashingService;
+import services.ImportService;
 import services.NotificationService;
+import services.ResyncService;
+import utils.ByteRange;
+import utils.MediaInfo;
 import utils.Utils;
-import utils.io.IOUtils;
-import utils.io.Leaf;
 
-import java.nio.charset.StandardCharsets;
-import java.time.ZoneId;
-import java.time.ZoneOffset;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.*;
 import java.util.stream.IntStream;
 
@@ -36,8 +42,14 @@ import static constants.Const.GENERAL_ERROR;
 import static constants.Const.TOAST_ERROR;
 
 public class DashboardController {
-    private static final int MAX_FILE_SIZE_BYTES = 10485760; // 10MB
+    private static final int MAX_FILE_SIZE_BYTES = 52428800; // 50MB
+    private static final int MAX_SLICE = 8388608; // 8MB
     private final DataService dataService;
+    private final ChangeService changeService;
+    private final ResyncService resyncService;
+    private final ImportService importService;
+    private final ExportService exportService;
+    private final HashingService hashingService;
     private final NotificationService notificationService;
     private final Config config;
     private final Messages messages;
@@ -45,12 +57,22 @@ public class DashboardController {
 
     @Inject
     public DashboardController(DataService dataService,
+                               ChangeService changeService,
+                               ResyncService resyncService,
+                               ImportService importService,
+                               ExportService exportService,
+                               HashingService hashingService,
                                NotificationService notificationService,
                                Config config,
                                Messages messages,
                                @Named("authentication.redirect.login") String loginRedirect) {
         this.notificationService = Objects.requireNonNull(notificationService, Required.NOTIFICATION_SERVICE);
         this.dataService = Objects.requireNonNull(dataService, Required.DATA_SERVICE);
+        this.changeService = Objects.requireNonNull(changeService, Required.CHANGE_SERVICE);
+        this.resyncService = Objects.requireNonNull(resyncService, Required.RESYNC_SERVICE);
+        this.importService = Objects.requireNonNull(importService, Required.IMPORT_SERVICE);
+        this.exportService = Objects.requireNonNull(exportService, Required.EXPORT_SERVICE);
+        this.hashingService = Objects.requireNonNull(hashingService, Required.HASHING_SERVICE);
         this.config = Objects.requireNonNull(config, Required.CONFIG);
         this.messages = Objects.requireNonNull(messages, Required.MESSAGES);
         this.authRedirect = Objects.requireNonNull(loginRedirect, Required.LOGIN_REDIRECT);
@@ -59,13 +81,14 @@ public class DashboardController {
     @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
     public Response dashboard(Authentication authentication, Optional<String> categoryUid) {
         String userUid = authentication.getSubject();
+        String changes = changeService.token(userUid);
         var category = categoryUid
                 .filter(Utils::isValidRandom)
                 .map(uid -> dataService.findCategory(uid, userUid))
                 .orElseGet(() -> dataService.findInbox(userUid));
 
         Optional<List<Map<String, Object>>> categories = dataService.findCategories(userUid);
-        Optional<List<Map<String, Object>>> items = dataService.findItems(userUid, category.getUid());
+        var page = dataService.findItems(userUid, category.getUid(), null, 0);
 
         categories.ifPresent(Utils::sortCategories);
 
@@ -74,7 +97,10 @@ public class DashboardController {
                 .render("breadcrumb", category.getName())
                 .render("categories", categories.orElseThrow())
                 .render("categoryUid", category.getUid())
-                .render("items", Utils.convertItems(items.orElseThrow()))
+                .render("items", Utils.convertItems(page.items()))
+                .render("next", page.next())
+                .render("itemCount", category.getItemCount())
+                .render("changes", changes)
                 .render("poll", Boolean.TRUE);
     }
 
@@ -178,8 +204,12 @@ public class DashboardController {
 
     public Response resync(Authentication authentication, Flash flash) {
         String userUid = authentication.getSubject();
-        Thread.ofVirtual().start(() -> dataService.resync(userUid));
-        flash.put(Const.TOAST_SUCCESS, messages.get("toast.resync.success"));
+        if (resyncService.start(userUid)) {
+            flash.put(Const.TOAST_SUCCESS, messages.get("toast.resync.success"));
+        } else {
+            flash.put(TOAST_ERROR, messages.get("toast.resync.busy"));
+        }
+
         return Response.redirect("/dashboard");
     }
 
@@ -211,7 +241,9 @@ public class DashboardController {
 
         return Response.ok()
                 .render("active", "io")
-                .render("categories", categories.orElseThrow());
+                .render("categories", categories.orElseThrow())
+                .render("exportRunning", exportService.isRunning(userUid))
+                .render("exportReady", exportService.info(userUid).isPresent());
     }
 
     public Response about(Authentication authentication) {
@@ -250,38 +282,12 @@ public class DashboardController {
         form.expectFileMimeType("importfile", List.of("text/html"));
 
         if (form.isValid()) {
-            var content = form.getFile("importfile")
-                    .map(String::new)
-                    .orElse(Strings.EMPTY);
-
-            try {
-                List<Leaf> leafs = IOUtils.importItems(content);
-                for (Leaf leaf : leafs) {
-                    if (leaf.isFolder()) {
-                        var category = dataService.findCategoryByName(leaf.getTitle(), userUid);
-                        if (category == null) {
-                            dataService.addCategory(userUid, leaf.getTitle());
-                            category = dataService.findCategoryByName(leaf.getTitle(), userUid);
-                        }
-
-                        for (Leaf child : leaf.getChildren()) {
-                            if (!child.isFolder()) {
-                                var item = Item.create()
-                                        .withTitle(child.getTitle())
-                                        .withUrl(child.getUrl())
-                                        .withCategoryUid(category.getUid())
-                                        .withUserUid(userUid)
-                                        .withImage(child.getDataCover());
-
-                                item.setTimestamp(child.getAddDate().atZone(ZoneId.systemDefault()).toLocalDateTime());
-
-                                dataService.save(item);
-                            }
-                        }
-                    }
-                }
+            try (var input = new ByteArrayInputStream(form.getFile("importfile").orElse(new byte[0]))) {
+                importService.importItems(userUid, input);
+            } catch (SecurityException e) {
+                flash.put(TOAST_ERROR, messages.get("toast.import.rejected"));
             } catch (Exception e) {
-                //Intentionally left blank
+                flash.put(TOAST_ERROR, messages.get("toast.error"));
             }
         } else {
             flash.put(TOAST_ERROR, messages.get("toast.error"));
@@ -295,11 +301,21 @@ public class DashboardController {
         String userUid = authentication.getSubject();
         form.expectValue("confirmPassword");
 
-        if (form.isValid() && dataService.deleteAccount(form.get("confirmPassword"), userUid)) {
-            authentication.logout();
-            session.clear();
+        if (form.isValid()) {
+            var deleted = dataService.deleteAccount(form.get("confirmPassword"), userUid);
+            if (deleted.isEmpty()) {
+                flash.put(TOAST_ERROR, messages.get("toast.throttled"));
 
-            return Response.redirect(authRedirect);
+                return Response.redirect("/dashboard/profile");
+            }
+
+            if (deleted.get()) {
+                exportService.delete(userUid);
+                authentication.logout();
+                session.clear();
+
+                return Response.redirect(authRedirect);
+            }
         }
 
         flash.put(TOAST_ERROR, messages.get("toast.error"));
@@ -308,46 +324,76 @@ public class DashboardController {
     }
 
     public Response exporter(Authentication authentication) {
-        String userUid = authentication.getSubject();
-        List<Map<String, Object>> categories = dataService.findCategories(userUid).orElse(List.of());
+        var output = new ByteArrayOutputStream(8192);
+        try {
+            exportService.html(authentication.getSubject(), output);
+        } catch (IOException e) {
+            return Response.status(StatusCodes.INTERNAL_SERVER_ERROR);
+        }
 
-        List<Leaf> leafs = categories.stream()
-                .filter(category -> category.containsKey("uid"))
-                .map(category -> {
-                    String uid = (String) category.get("uid");
-                    String name = (String) category.get("name");
+        return Response.ok()
+                .bodyBinary(output.toByteArray())
+                .contentType("text/html; charset=UTF-8")
+                .header("Content-Length", String.valueOf(output.size()))
+                .header("Cache-Control", "no-cache")
+                .header("Content-Disposition", "attachment; filename=\"filed-papers-export.html\"");
+    }
 
-                    List<Map<String, Object>> items = dataService.findItems(userUid, uid).orElse(List.of());
+    @FilterWith(CsrfFilter.class)
+    public Response doExport(Authentication authentication, Flash flash) {
+        if (exportService.start(authentication.getSubject())) {
+            flash.put(Const.TOAST_SUCCESS, messages.get("toast.export.success"));
+        } else {
+            flash.put(TOAST_ERROR, messages.get("toast.export.busy"));
+        }
 
-                    var folderLeaf = new Leaf();
-                    folderLeaf.setFolder(true);
-                    folderLeaf.setTitle(name);
+        return Response.redirect("/dashboard/io");
+    }
 
-                    items.stream()
-                            .map(item -> {
-                                String itemUid = (String) item.get("uid");
-                                var dataItem = dataService.findItem(itemUid, userUid);
+    public Response download(Request request, Authentication authentication) {
+        String userUid = authentication.getSubject();
+        Optional<MediaInfo> info = exportService.info(userUid);
+        if (info.isEmpty()) {
+            return Response.notFound();
+        }
 
-                                var itemLeaf = new Leaf();
-                                itemLeaf.setFolder(false);
-                                itemLeaf.setUrl(dataItem.getUrl());
-                                itemLeaf.setDataCover(dataItem.getImage());
-                                itemLeaf.setTitle(dataItem.getTitle());
-                                itemLeaf.setAddDate(dataItem.getTimestamp().toInstant(ZoneOffset.UTC));
+        var media = info.get();
+        if (media.etag().equals(request.getHeader(Headers.IF_NONE_MATCH_STRING))) {
+            return Response.notModified().header(Headers.ETAG_STRING, media.etag());
+        }
 
-                                return itemLeaf;
-                            }).forEach(folderLeaf::addChild);
+        String ifRange = request.getHeader(Headers.IF_RANGE_STRING);
+        ByteRange range = StringUtils.isBlank(ifRange) || media.etag().equals(ifRange)
+                ? ByteRange.parse(request.getHeader(Headers.RANGE_STRING), media.length())
+                : null;
+
+        //Only a request that asked for a range gets a partial response, which may be shorter than requested
+        boolean partial = range != null;
+        if (range == null) {
+            range = new ByteRange(0, media.length() - 1);
+        } else if (!range.isSatisfiable()) {
+            return Response.status(StatusCodes.REQUEST_RANGE_NOT_SATISFIABLE)
+                    .header(Headers.CONTENT_RANGE_STRING, "bytes */" + media.length());
+        } else {
+            range = range.limit(MAX_SLICE);
+        }
 
-                    return folderLeaf;
-                }).toList();
+        Response response = partial
+                ? Response.status(StatusCodes.PARTIAL_CONTENT).header(Headers.CONTENT_RANGE_STRING, range.contentRange(media.length()))
+                : Response.ok();
 
-        String export = IOUtils.exportItems(leafs);
+        Optional<byte[]> data = exportService.read(userUid, media.uid(), range.start(), Math.toIntExact(range.length()));
+        if (data.isEmpty()) {
+            return Response.notFound();
+        }
 
-        return Response.ok()
-                .bodyText(export)
-                .header("Content-Length", String.valueOf(export.getBytes(StandardCharsets.UTF_8).length))
-                .header("Cache-Control", "no-cache")
-                .header("Content-Disposition", "attachment; filename=\"filed-papers-export.html\"");
+        return response
+                .bodyBinary(data.get())
+                .contentType(media.contentType())
+                .header(Headers.ETAG_STRING, media.etag())
+                .header(Headers.ACCEPT_RANGES_STRING, "bytes")
+                .header(Headers.CACHE_CONTROL_STRING, "private, no-cache")
+                .header(Headers.CONTENT_DISPOSITION_STRING, "attachment; filename=\"filed-papers-export.zip\"");
     }
 
     @FilterWith(CsrfFilter.class)
@@ -365,7 +411,11 @@ public class DashboardController {
             String password = form.get("password");
 
             var user = dataService.findUserByUid(userUid);
-            if (user.getPassword().equals(CommonUtils.hashArgon2(password, user.getSalt()))) {
+            var valid = hashingService.verify(userUid, null, () -> user.getPassword().equals(CommonUtils.hashArgon2(password, user.getSalt())));
+
+            if (valid.isEmpty()) {
+                flash.put(Const.TOAST_ERROR, messages.get("toast.throttled"));
+            } else if (valid.get()) {
                 user.setUsername(username);
                 user.setConfirmed(false);
                 dataService.save(user);
@@ -403,12 +453,18 @@ public class DashboardController {
             String newPassword = form.get("new-password");
 
             var user = dataService.findUserByUid(userUid);
-            if (user.getPassword().equals(CommonUtils.hashArgon2(password, user.getSalt()))) {
-                user.setPassword(CommonUtils.hashArgon2(newPassword, user.getSalt()));
+            var valid = hashingService.verify(userUid, null, () -> user.getPassword().equals(CommonUtils.hashArgon2(password, user.getSalt())));
+            Optional<String> hash = valid.filter(Boolean::booleanValue)
+                    .flatMap(ok -> hashingService.compute(() -> CommonUtils.hashArgon2(newPassword, user.getSalt())));
+
+            if (hash.isPresent()) {
+                user.setPassword(hash.get());
                 dataService.save(user);
 
                 notificationService.accountChanged(user.getUsername(), messages.get("email.account.changes.password"));
                 flash.put(Const.TOAST_SUCCESS, messages.get("toast.password.success"));
+            } else if (valid.orElse(true)) {
+                flash.put(Const.TOAST_ERROR, messages.get("toast.throttled"));
             } else {
                 flash.put(Const.TOAST_ERROR, messages.get("toast.error"));
             }
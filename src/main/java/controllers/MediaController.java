@@ -3,17 +3,31 @@ package controllers;
 import constants.Required;
 import io.mangoo.routing.Response;
 import io.mangoo.routing.bindings.Authentication;
+import io.mangoo.routing.bindings.Request;
 import io.mangoo.utils.CommonUtils;
+import io.undertow.util.DateUtils;
 import io.undertow.util.Headers;
+import io.undertow.util.StatusCodes;
 import jakarta.inject.Inject;
 import jakarta.validation.constraints.NotEmpty;
+import models.enums.Thumbnail;
+import org.apache.commons.lang3.StringUtils;
 import services.DataService;
 import services.MediaService;
+import utils.ByteRange;
+import utils.MediaInfo;
+import utils.Utils;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 
 public class MediaController {
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
     private final MediaService mediaService;
     private final DataService dataService;
 
@@ -23,20 +37,105 @@ public class MediaController {
         this.dataService = Objects.requireNonNull(dataService, Required.DATA_SERVICE);
     }
 
-    public Response image(String uid) {
-        return mediaService.retrieve(uid)
-                .map(data -> Response.ok()
-                        .header(Headers.CACHE_CONTROL_STRING, "Cache-Control: public, max-age=31536000, immutable")
-                        .bodyBinary(data))
-                .orElse(Response.notFound());
+    public Response image(Request request, String uid, String size) {
+        Optional<MediaInfo> info = mediaService.info(uid);
+        if (info.isEmpty()) {
+            return Response.notFound();
+        }
+
+        Optional<Thumbnail> thumbnail = Thumbnail.from(size);
+        var media = thumbnail
+                .map(value -> info.get().variant(value.name().toLowerCase(Locale.ENGLISH)))
+                .orElse(info.get());
+
+        if (isNotModified(request, media)) {
+            return headers(Response.notModified(), media);
+        }
+
+        if (thumbnail.isPresent()) {
+            return mediaService.thumbnail(uid, thumbnail.get())
+                    .map(data -> body(request, media.withContentType(Utils.contentType(data)), data.length,
+                            range -> Optional.of(range == null ? data : range.slice(data))))
+                    .orElse(Response.notFound());
+        }
+
+        return body(request, media, media.length(),
+                range -> range == null ? mediaService.retrieve(uid) : mediaService.retrieve(uid, range));
     }
 
-    public Response archive(Authentication authentication, @NotEmpty String uid) {
+    public Response archive(Request request, Authentication authentication, @NotEmpty String uid) {
         String userUid = authentication.getSubject();
         var item = dataService.findItem(uid, userUid);
+
+        Optional<MediaInfo> info = StringUtils.isNotBlank(item.getArchiveUid()) ? mediaService.info(item.getArchiveUid()) : Optional.empty();
+        if (info.isPresent() && info.get().etag().equals(request.getHeader(Headers.IF_NONE_MATCH_STRING))) {
+            return Response.notModified().header(Headers.ETAG_STRING, info.get().etag());
+        }
+
         var archive = dataService.findArchive(item).orElseThrow();
         var string = new String(archive, StandardCharsets.UTF_8);
 
-        return Response.ok().render("archive", new String(CommonUtils.decodeFromBase64(string), StandardCharsets.UTF_8));
+        var response = Response.ok().render("archive", new String(CommonUtils.decodeFromBase64(string), StandardCharsets.UTF_8));
+        info.ifPresent(media -> response.header(Headers.ETAG_STRING, media.etag()));
+
+        return response;
+    }
+
+    private Response body(Request request, MediaInfo media, long length, Function<ByteRange, Optional<byte[]>> reader) {
+        String ifRange = request.getHeader(Headers.IF_RANGE_STRING);
+        ByteRange range = StringUtils.isBlank(ifRange) || media.etag().equals(ifRange)
+                ? ByteRange.parse(request.getHeader(Headers.RANGE_STRING), length)
+                : null;
+
+        if (range != null && !range.isSatisfiable()) {
+            return headers(Response.status(StatusCodes.REQUEST_RANGE_NOT_SATISFIABLE), media)
+                    .header(Headers.CONTENT_RANGE_STRING, "bytes */" + length);
+        }
+
+        //Ranges are read as a slice, so the full object is not copied a second time
+        Optional<byte[]> data = reader.apply(range);
+        if (data.isEmpty()) {
+            return Response.notFound();
+        }
+
+        Response response = range == null
+                ? Response.ok()
+                : Response.status(StatusCodes.PARTIAL_CONTENT).header(Headers.CONTENT_RANGE_STRING, range.contentRange(length));
+
+        return headers(response, media)
+                .bodyBinary(data.get())
+                .contentType(media.contentType());
+    }
+
+    private static Response headers(Response response, MediaInfo media) {
+        response.header(Headers.ETAG_STRING, media.etag())
+                .header(Headers.CACHE_CONTROL_STRING, CACHE_CONTROL)
+                .header(Headers.ACCEPT_RANGES_STRING, "bytes")
+                .header("X-Content-Type-Options", "nosniff")
+                .header("Content-Security-Policy", "default-src 'none'; style-src 'unsafe-inline'; sandbox");
+
+        if (media.uploaded() != null) {
+            response.header(Headers.LAST_MODIFIED_STRING, DateUtils.toDateString(media.uploaded()));
+        }
+
+        return response;
+    }
+
+    private static boolean isNotModified(Request request, MediaInfo media) {
+        String ifNoneMatch = request.getHeader(Headers.IF_NONE_MATCH_STRING);
+        if (StringUtils.isNotBlank(ifNoneMatch)) {
+            return Arrays.stream(StringUtils.split(ifNoneMatch, ','))
+                    .map(String::strip)
+                    .map(tag -> StringUtils.removeStart(tag, "W/"))
+                    .anyMatch(tag -> "*".equals(tag) || media.etag().equals(tag));
+        }
+
+        String ifModifiedSince = request.getHeader(Headers.IF_MODIFIED_SINCE_STRING);
+        if (StringUtils.isNotBlank(ifModifiedSince) && media.uploaded() != null) {
+            Date since = DateUtils.parseDate(ifModifiedSince);
+            return since != null && media.uploaded().getTime() / 1000 <= since.getTime() / 1000;
+        }
+
+        return false;
     }
 }
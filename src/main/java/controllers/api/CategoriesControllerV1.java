@@ -10,6 +10,7 @@ import jakarta.inject.Inject;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import org.apache.commons.lang3.StringUtils;
+import services.ChangeService;
 import services.DataService;
 import utils.ResultHandler;
 import utils.Utils;
@@ -21,18 +22,29 @@ import java.util.Objects;
 public class CategoriesControllerV1 {
     public static final String MISSING_DATA = "Missing data";
     private final DataService dataService;
+    private final ChangeService changeService;
 
     @Inject
-    public CategoriesControllerV1(DataService dataService) {
+    public CategoriesControllerV1(DataService dataService, ChangeService changeService) {
         this.dataService = Objects.requireNonNull(dataService, Required.DATA_SERVICE);
+        this.changeService = Objects.requireNonNull(changeService, Required.CHANGE_SERVICE);
     }
 
     public Response list(Request request) {
         String userUid = request.getAttribute(Const.USER_UID);
 
         try {
-            return dataService.findCategories(userUid)
-                    .map(categories -> Response.ok().bodyJson(Map.of("categories", categories)))
+            var categories = dataService.findAllCategories(userUid);
+            String etag = Utils.etag(categories);
+
+            if (etag.equals(request.getHeader("If-None-Match"))) {
+                return Response.notModified();
+            }
+
+            return dataService.toOutput(categories)
+                    .map(output -> Response.ok()
+                            .header("ETag", etag)
+                            .bodyJson(Map.of("categories", output)))
                     .orElse(Response.internalServerError().bodyJson(Const.GENERAL_ERROR));
         } catch (IllegalArgumentException e) {
             return Response.badRequest().bodyJsonError(e.getMessage());
@@ -71,6 +83,23 @@ public class CategoriesControllerV1 {
         return Response.notModified();
     }
 
+    public Response changes(Request request, Map<String, String> data) {
+        String userUid = request.getAttribute(Const.USER_UID);
+        String token = data != null ? data.get(Const.TOKEN) : null;
+
+        try {
+            if (StringUtils.isBlank(token)) {
+                return Response.ok().bodyJson(Map.of(Const.TOKEN, changeService.token(userUid)));
+            }
+
+            return changeService.await(userUid, token)
+                    .map(changes -> Response.ok().bodyJson(changes))
+                    .orElse(Response.notModified());
+        } catch (IllegalArgumentException e) {
+            return Response.badRequest().bodyJsonError(e.getMessage());
+        }
+    }
+
     public Response add(Request request, @NotNull @NotEmpty Map<String, String> data) {
         String userUid = request.getAttribute(Const.USER_UID);
 
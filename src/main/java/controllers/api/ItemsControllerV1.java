@@ -6,70 +6,98 @@ import filters.ApiAccessFilter;
 import io.mangoo.annotations.FilterWith;
 import io.mangoo.routing.Response;
 import io.mangoo.routing.bindings.Request;
-import io.mangoo.utils.CommonUtils;
-import io.mangoo.utils.JsonUtils;
+import io.undertow.util.StatusCodes;
 import jakarta.inject.Inject;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import models.Category;
+import org.apache.commons.lang3.StringUtils;
+import services.BackgroundService;
 import services.DataService;
 import utils.ResultHandler;
+import utils.Utils;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
 @FilterWith(ApiAccessFilter.class)
 public class ItemsControllerV1 {
+    private static final String INVALID_USER_OR_CATEGORY = "Invalid user or category";
     private final DataService dataService;
+    private final BackgroundService backgroundService;
 
     @Inject
-    public ItemsControllerV1(DataService dataService) {
+    public ItemsControllerV1(DataService dataService, BackgroundService backgroundService) {
         this.dataService = Objects.requireNonNull(dataService, Required.DATA_SERVICE);
+        this.backgroundService = Objects.requireNonNull(backgroundService, Required.BACKGROUND_SERVICE);
     }
 
-    public Response add(Request request, boolean async, Map<String, String> data) {
+    public Response add(Request request, Map<String, String> data) {
         String userUid = request.getAttribute(Const.USER_UID);
         String url = data.get("url");
         String category = data.get("category");
 
-        if (async) {
-            Thread.ofVirtual().start(() -> ResultHandler.handle(() -> dataService.addItem(userUid, url, category)));
-            return Response.ok();
-        } else {
-            return ResultHandler.handle(() -> dataService.addItem(userUid, url, category));
-        }
+        return ResultHandler.handle(() -> dataService.addItem(userUid, url, category));
     }
 
     public Response archive(Request request, @NotEmpty String uid) {
         String userUid = request.getAttribute(Const.USER_UID);
-        Thread.ofVirtual().start(() -> ResultHandler.handle(() -> dataService.archive(uid, userUid)));
+        if (backgroundService.submit(userUid, () -> ResultHandler.handle(() -> dataService.archive(uid, userUid)))) {
+            return Response.ok();
+        }
 
-        return Response.ok();
+        return Response.status(StatusCodes.TOO_MANY_REQUESTS);
     }
 
-    public Response list(Request request, @NotEmpty String categoryUid) {
+    public Response list(Request request, @NotEmpty String categoryUid, String cursor, int limit) {
         String userUid = request.getAttribute(Const.USER_UID);
         String ifNoneMatch = request.getHeader("If-None-Match");
 
         try {
+            var category = dataService.findCategory(categoryUid, userUid);
+            if (category == null) {
+                return Response.badRequest().bodyJsonError(INVALID_USER_OR_CATEGORY);
+            }
+
+            if (StringUtils.isNotBlank(cursor) || limit > 0) {
+                return page(userUid, category, cursor, limit, ifNoneMatch);
+            }
+
+            String etag = Utils.etag(category);
+            if (etag.equals(ifNoneMatch)) {
+                return Response.notModified();
+            }
+
             return dataService.findItems(userUid, categoryUid)
-                    .map(items -> {
-                        String json = JsonUtils.toJson(Map.of("items", items));
-                        String hash = CommonUtils.hexSHA512(json);
-
-                        if (hash.equals(ifNoneMatch)) {
-                            return Response.notModified();
-                        } else {
-                            return Response.ok()
-                                    .header("ETag", hash)
-                                    .bodyJson(json);
-                        }
-                    })
-                    .orElse(Response.badRequest().bodyJsonError("Invalid user or category"));
+                    .map(items -> Response.ok()
+                            .header("ETag", etag)
+                            .bodyJson(Map.of("items", items)))
+                    .orElse(Response.badRequest().bodyJsonError(INVALID_USER_OR_CATEGORY));
         } catch (IllegalArgumentException e) {
-            return Response.badRequest().bodyJsonError("Invalid user or category");
+            return Response.badRequest().bodyJsonError(INVALID_USER_OR_CATEGORY);
         }
     }
 
+    private Response page(String userUid, Category category, String cursor, int limit, String ifNoneMatch) {
+        String etag = Utils.etag(category, cursor, String.valueOf(limit));
+        if (etag.equals(ifNoneMatch)) {
+            return Response.notModified();
+        }
+
+        var page = dataService.findItems(userUid, category.getUid(), cursor, limit);
+
+        Map<String, Object> output = new HashMap<>();
+        output.put("items", page.items());
+        if (page.hasNext()) {
+            output.put("next", page.next());
+        }
+
+        return Response.ok()
+                .header("ETag", etag)
+                .bodyJson(output);
+    }
+
     public Response delete(Request request, @NotEmpty String uid) {
         String userUid = request.getAttribute(Const.USER_UID);
         return ResultHandler.handle(() -> dataService.deleteItem(uid, userUid));
@@ -0,0 +1,38 @@
+package controllers.api;
+
+import constants.Const;
+import constants.Required;
+import filters.ApiAccessFilter;
+import io.mangoo.annotations.FilterWith;
+import io.mangoo.routing.Response;
+import io.mangoo.routing.bindings.Request;
+import io.undertow.util.StatusCodes;
+import jakarta.inject.Inject;
+import services.ResyncService;
+
+import java.util.Objects;
+
+@FilterWith(ApiAccessFilter.class)
+public class ResyncControllerV1 {
+    private final ResyncService resyncService;
+
+    @Inject
+    public ResyncControllerV1(ResyncService resyncService) {
+        this.resyncService = Objects.requireNonNull(resyncService, Required.RESYNC_SERVICE);
+    }
+
+    public Response progress(Request request) {
+        String userUid = request.getAttribute(Const.USER_UID);
+
+        return Response.ok().bodyJson(resyncService.progress(userUid));
+    }
+
+    public Response start(Request request) {
+        String userUid = request.getAttribute(Const.USER_UID);
+        if (resyncService.start(userUid)) {
+            return Response.status(StatusCodes.ACCEPTED).bodyJson(resyncService.progress(userUid));
+        }
+
+        return Response.status(StatusCodes.CONFLICT).bodyJson(resyncService.progress(userUid));
+    }
+}
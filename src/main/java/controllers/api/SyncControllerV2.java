@@ -0,0 +1,32 @@
+package controllers.api;
+
+import constants.Const;
+import constants.Required;
+import filters.ApiAccessFilter;
+import io.mangoo.annotations.FilterWith;
+import io.mangoo.routing.Response;
+import io.mangoo.routing.bindings.Request;
+import jakarta.inject.Inject;
+import services.DataService;
+
+import java.util.Objects;
+
+@FilterWith(ApiAccessFilter.class)
+public class SyncControllerV2 {
+    private final DataService dataService;
+
+    @Inject
+    public SyncControllerV2(DataService dataService) {
+        this.dataService = Objects.requireNonNull(dataService, Required.DATA_SERVICE);
+    }
+
+    public Response sync(Request request, String token, String cursor) {
+        String userUid = request.getAttribute(Const.USER_UID);
+
+        try {
+            return Response.ok().bodyJson(dataService.sync(userUid, token, cursor));
+        } catch (IllegalArgumentException e) {
+            return Response.badRequest().bodyJsonError(e.getMessage());
+        }
+    }
+}
@@ -6,6 +6,8 @@ import constants.Required;
 import io.mangoo.exceptions.MangooJwtException;
 import io.mangoo.routing.Response;
 import io.mangoo.routing.bindings.Authentication;
+import io.mangoo.routing.bindings.Request;
+import io.undertow.util.StatusCodes;
 import jakarta.inject.Inject;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -14,6 +16,7 @@ import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.logging.log4j.util.Strings;
 import services.AuthenticationService;
 import services.DataService;
+import services.HashingService;
 
 import java.text.ParseException;
 import java.util.Map;
@@ -23,34 +26,46 @@ import java.util.Optional;
 public class UserControllerV1 {
     private final DataService dataService;
     private final AuthenticationService authenticationService;
+    private final HashingService hashingService;
 
     @Inject
-    public UserControllerV1(DataService dataService, AuthenticationService authenticationService) {
+    public UserControllerV1(DataService dataService, AuthenticationService authenticationService, HashingService hashingService) {
         this.dataService = Objects.requireNonNull(dataService, Required.DATA_SERVICE);
         this.authenticationService = Objects.requireNonNull(authenticationService, Required.AUTHENTICATION_SERVICE);
+        this.hashingService = Objects.requireNonNull(hashingService, Required.HASHING_SERVICE);
     }
 
-    public Response login(@NotNull @NotEmpty Map<String, String> credentials, Authentication authentication) {
+    public Response login(Request request, @NotNull @NotEmpty Map<String, String> credentials, Authentication authentication) {
         String username = Optional.ofNullable(credentials.get("username")).orElse(Strings.EMPTY);
         String password = Optional.ofNullable(credentials.get("password")).orElse(Strings.EMPTY);
         if (StringUtils.isAnyBlank(username, password)) {
             return Response.unauthorized();
         }
 
-        return dataService.authenticateUser(username, password, authentication)
-                .map(userUid -> {
-                    try {
-                        if (dataService.userHasMfa(userUid)) {
-                            return Response.accepted()
-                                    .bodyJson(authenticationService.getChallengeToken(userUid));
-                        } else {
-                            return Response.ok()
-                                    .bodyJson(authenticationService.getRefreshAndAccessToken(userUid));
-                        }
-                    } catch (MangooJwtException e) {
-                        return Response.unauthorized();
-                    }
-                }).orElseGet(Response::unauthorized);
+        var user = dataService.findUser(username);
+        var valid = hashingService.verify(username, hashingService.clientIp(request),
+                () -> user != null && authentication.isValidLogin(user.getUid(), password, user.getSalt(), user.getPassword()));
+
+        if (valid.isEmpty()) {
+            return Response.status(StatusCodes.TOO_MANY_REQUESTS);
+        }
+
+        if (!valid.get()) {
+            return Response.unauthorized();
+        }
+
+        try {
+            String userUid = user.getUid();
+            if (dataService.userHasMfa(userUid)) {
+                return Response.accepted()
+                        .bodyJson(authenticationService.getChallengeToken(userUid));
+            } else {
+                return Response.ok()
+                        .bodyJson(authenticationService.getRefreshAndAccessToken(userUid));
+            }
+        } catch (MangooJwtException e) {
+            return Response.unauthorized();
+        }
     }
 
     public Response mfa(@NotNull @NotEmpty Map<String, String> credentials) {
@@ -91,15 +106,9 @@ public class UserControllerV1 {
                 return Response.unauthorized();
             }
 
-            if (authenticationService.isRefreshBlacklisted(jwtClaimsSet.getJWTID())) {
-                return Response.unauthorized();
-            }
-
-            String userUid = jwtClaimsSet.getSubject();
-            authenticationService.blacklistToken(jwtClaimsSet.getClaimAsString(Const.ATID));
-            authenticationService.blacklistRefreshToken(jwtClaimsSet.getJWTID());
-
-            return Response.ok().bodyJson(authenticationService.getRefreshAndAccessToken(userUid));
+            return authenticationService.rotateRefreshToken(jwtClaimsSet)
+                    .map(tokens -> Response.ok().bodyJson(tokens))
+                    .orElseGet(Response::unauthorized);
         } catch (MangooJwtException | ParseException e) {
             return Response.unauthorized();
         }
@@ -119,14 +128,13 @@ public class UserControllerV1 {
             }
 
             JWTClaimsSet refreshTokenClaims = authenticationService.parseRefreshToken(refreshToken);
-            if (refreshTokenClaims == null || authenticationService.isRefreshBlacklisted(refreshTokenClaims.getJWTID())) {
+            if (refreshTokenClaims == null || !authenticationService.revokeRefreshToken(refreshTokenClaims)) {
                 return Response.unauthorized();
             }
 
             authenticationService.blacklistToken(accessTokenClaims.getJWTID());
-            authenticationService.blacklistRefreshToken(refreshTokenClaims.getJWTID());
             return Response.ok();
-        } catch (MangooJwtException e) {
+        } catch (MangooJwtException | ParseException e) {
             return Response.unauthorized();
         }
     }
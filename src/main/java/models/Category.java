@@ -24,6 +24,10 @@ public class Category extends Entity implements Serializable {
 
     private Role role;
 
+    private long itemCount;
+
+    private long version;
+
     public Category(String name, String userUid,  Role role) {
         this.name = Objects.requireNonNull(name, Required.NAME);
         this.userUid = Objects.requireNonNull(userUid, Required.USER_UID);
@@ -65,4 +69,20 @@ public class Category extends Entity implements Serializable {
     public void setRole(Role role) {
         this.role = role;
     }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(long itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,49 @@
+package models;
+
+import constants.Collections;
+import constants.Required;
+import io.mangoo.annotations.Collection;
+import io.mangoo.persistence.Entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Collection(name = Collections.CHANGES)
+public class Change extends Entity implements Serializable {
+    private String userUid;
+    private String itemUid;
+    private LocalDateTime timestamp;
+
+    public Change() {}
+
+    public Change(String userUid, String itemUid, LocalDateTime timestamp) {
+        this.userUid = Objects.requireNonNull(userUid, Required.USER_UID);
+        this.itemUid = Objects.requireNonNull(itemUid, Required.ITEM_UID);
+        this.timestamp = Objects.requireNonNull(timestamp, Required.TIMESTAMP);
+    }
+
+    public String getUserUid() {
+        return userUid;
+    }
+
+    public void setUserUid(String userUid) {
+        this.userUid = userUid;
+    }
+
+    public String getItemUid() {
+        return itemUid;
+    }
+
+    public void setItemUid(String itemUid) {
+        this.itemUid = itemUid;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -22,10 +22,11 @@ public class Item extends Entity implements Serializable {
     private String categoryUid;
     @Indexed
     private LocalDateTime timestamp;
-    @Indexed(unique = true)
+    @Indexed
     private String mediaUid;
     @Indexed
     private String archiveUid;
+    private String importUid;
     private String url;
     private String image;
     private String title;
@@ -73,6 +74,11 @@ public class Item extends Entity implements Serializable {
         return this;
     }
 
+    public Item withImportUid(String importUid) {
+        this.importUid = importUid;
+        return this;
+    }
+
     public Item withDescription(String description) {
         this.description = description;
         return this;
@@ -166,6 +172,14 @@ public class Item extends Entity implements Serializable {
         this.archiveUid = archiveUid;
     }
 
+    public String getImportUid() {
+        return importUid;
+    }
+
+    public void setImportUid(String importUid) {
+        this.importUid = importUid;
+    }
+
     public boolean isArchived() {
         return archived;
     }
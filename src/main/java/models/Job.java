@@ -0,0 +1,177 @@
+package models;
+
+import constants.Collections;
+import constants.Required;
+import io.mangoo.annotations.Collection;
+import io.mangoo.annotations.Indexed;
+import io.mangoo.persistence.Entity;
+import models.enums.JobStatus;
+import models.enums.JobType;
+import utils.Utils;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+@Collection(name = Collections.JOBS)
+public class Job extends Entity implements Serializable {
+    @Indexed(unique = true)
+    private String uid;
+    private String userUid;
+    private String key;
+    private JobType type;
+    private JobStatus status;
+    private Map<String, String> data = new HashMap<>();
+    private int attempts;
+    private String error;
+    private LocalDateTime timestamp;
+    private LocalDateTime notBefore;
+    private LocalDateTime lockedUntil;
+    private String owner;
+    private LocalDateTime finished;
+    private String checkpoint;
+    private long processed;
+    private long total;
+
+    public Job() {}
+
+    public Job(JobType type, String userUid, Map<String, String> data) {
+        this.uid = Utils.randomString();
+        this.type = Objects.requireNonNull(type, Required.TYPE);
+        this.userUid = Objects.requireNonNull(userUid, Required.USER_UID);
+        this.data = new HashMap<>(Objects.requireNonNull(data, Required.DATA));
+        this.status = JobStatus.QUEUED;
+        this.timestamp = LocalDateTime.now();
+        this.notBefore = this.timestamp;
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    public void setUid(String uid) {
+        this.uid = uid;
+    }
+
+    public String getUserUid() {
+        return userUid;
+    }
+
+    public void setUserUid(String userUid) {
+        this.userUid = userUid;
+    }
+
+    public JobType getType() {
+        return type;
+    }
+
+    public void setType(JobType type) {
+        this.type = type;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(JobStatus status) {
+        this.status = status;
+    }
+
+    public Map<String, String> getData() {
+        return data;
+    }
+
+    public void setData(Map<String, String> data) {
+        this.data = data;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public LocalDateTime getNotBefore() {
+        return notBefore;
+    }
+
+    public void setNotBefore(LocalDateTime notBefore) {
+        this.notBefore = notBefore;
+    }
+
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(LocalDateTime lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public LocalDateTime getFinished() {
+        return finished;
+    }
+
+    public void setFinished(LocalDateTime finished) {
+        this.finished = finished;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getCheckpoint() {
+        return checkpoint;
+    }
+
+    public void setCheckpoint(String checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+}
@@ -0,0 +1,82 @@
+package models;
+
+import constants.Collections;
+import io.mangoo.annotations.Collection;
+import io.mangoo.persistence.Entity;
+import utils.preview.LinkPreview;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Collection(name = Collections.PREVIEWS)
+public class Preview extends Entity implements Serializable {
+    private String key;
+    private String title;
+    private String description;
+    private String url;
+    private String domain;
+    private String image;
+    private LocalDateTime timestamp;
+
+    public Preview() {}
+
+    public LinkPreview toLinkPreview() {
+        return new LinkPreview(title, description, url, domain, image);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    public String getImage() {
+        return image;
+    }
+
+    public void setImage(String image) {
+        this.image = image;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -15,6 +15,9 @@ import java.util.Objects;
 public class Token extends Entity implements Serializable {
     @Indexed(unique = true)
     private String uid;
+    private String userUid;
+    private String current;
+    private String atid;
     private LocalDateTime timestamp;
 
     public Token() {}
@@ -24,6 +27,13 @@ public class Token extends Entity implements Serializable {
         this.timestamp = Objects.requireNonNull(timestamp, Required.CREATED_AT);
     }
 
+    public Token(String uid, String userUid, String current, String atid, LocalDateTime timestamp) {
+        this(uid, timestamp);
+        this.userUid = Argument.requireNonBlank(userUid, Required.USER_UID);
+        this.current = Argument.requireNonBlank(current, Required.ID);
+        this.atid = Argument.requireNonBlank(atid, Required.ID);
+    }
+
     public String getUid() {
         return uid;
     }
@@ -32,6 +42,30 @@ public class Token extends Entity implements Serializable {
         this.uid = uid;
     }
 
+    public String getUserUid() {
+        return userUid;
+    }
+
+    public void setUserUid(String userUid) {
+        this.userUid = userUid;
+    }
+
+    public String getCurrent() {
+        return current;
+    }
+
+    public void setCurrent(String current) {
+        this.current = current;
+    }
+
+    public String getAtid() {
+        return atid;
+    }
+
+    public void setAtid(String atid) {
+        this.atid = atid;
+    }
+
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
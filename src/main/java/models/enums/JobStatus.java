@@ -0,0 +1,7 @@
+package models.enums;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    FAILED;
+}
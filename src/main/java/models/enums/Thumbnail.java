@@ -0,0 +1,25 @@
+package models.enums;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum Thumbnail {
+    SMALL(400),
+    MEDIUM(800);
+
+    private final int width;
+
+    Thumbnail(int width) {
+        this.width = width;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public static Optional<Thumbnail> from(String size) {
+        return Arrays.stream(values())
+                .filter(thumbnail -> thumbnail.name().equalsIgnoreCase(size))
+                .findFirst();
+    }
+}
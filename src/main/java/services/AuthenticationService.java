@@ -1,12 +1,12 @@
 package services;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.nimbusds.jwt.JWTClaimsSet;
 import constants.Const;
 import constants.Invalid;
 import constants.Required;
-import io.mangoo.cache.Cache;
-import io.mangoo.cache.CacheImpl;
 import io.mangoo.core.Config;
 import io.mangoo.exceptions.MangooJwtException;
 import io.mangoo.utils.Argument;
@@ -17,19 +17,22 @@ import jakarta.inject.Singleton;
 import models.Token;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.util.Strings;
+import utils.UserInfo;
 import utils.Utils;
 
 import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.Date;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 @Singleton
 public class AuthenticationService {
-    private static final int THOUSAND = 1000;
-    private static final String INVALID = "invalid_";
+    private static final int CHALLENGE_TOKEN_EXPIRES = 300;
     private static final String API_CHALLENGE_TOKEN_SECRET = "api.challengeToken.secret";
     private static final String API_CHALLENGE_TOKEN_KEY = "api.challengeToken.key";
     private static final String API_ACCESS_TOKEN_SECRET = "api.accessToken.secret";
@@ -38,18 +41,49 @@ public class AuthenticationService {
     private static final String API_REFRESH_TOKEN_KEY = "api.refreshToken.key";
     private static final String API_REFRESH_TOKEN_SECRET = "api.refreshToken.secret";
     private static final String API_REFRESH_TOKEN_EXPIRES = "api.refreshToken.expires";
+    private static final String ACCESS = "access_";
+    private static final String COOKIE = "cookie_";
     private final DataService dataService;
-    private final Config config;
-    private final Cache cache;
+    private final RevocationService revocationService;
+    private final Cache<String, JWTClaimsSet> claims = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfter(Expiry.creating((String key, JWTClaimsSet value) -> remaining(value)))
+            .build();
+    private final String issuer;
+    private final JwtKeys challengeKeys;
+    private final JwtKeys accessKeys;
+    private final JwtKeys refreshKeys;
+    private final JwtKeys cookieKeys;
+
+    private record JwtKeys(byte[] key, byte[] secret, String audience, int expires) {}
 
     @Inject
-    public AuthenticationService(DataService dataService, Config config) {
+    public AuthenticationService(DataService dataService, RevocationService revocationService, Config config) {
+        Objects.requireNonNull(config, Required.CONFIG);
+
         this.dataService = Objects.requireNonNull(dataService, Required.DATA_SERVICE);
-        this.config = Objects.requireNonNull(config, Required.CONFIG);
-        this.cache = new CacheImpl( Caffeine.newBuilder()
-                .maximumSize(THOUSAND)
-                .expireAfterWrite(Duration.of(10, ChronoUnit.MINUTES))
-                .build());
+        this.revocationService = Objects.requireNonNull(revocationService, Required.REVOCATION_SERVICE);
+        this.issuer = config.getApplicationName();
+        this.challengeKeys = new JwtKeys(
+                config.getString(API_CHALLENGE_TOKEN_KEY).getBytes(StandardCharsets.UTF_8),
+                config.getString(API_CHALLENGE_TOKEN_SECRET).getBytes(StandardCharsets.UTF_8),
+                issuer,
+                CHALLENGE_TOKEN_EXPIRES);
+        this.accessKeys = new JwtKeys(
+                config.getString(API_ACCESS_TOKEN_KEY).getBytes(StandardCharsets.UTF_8),
+                config.getString(API_ACCESS_TOKEN_SECRET).getBytes(StandardCharsets.UTF_8),
+                issuer,
+                config.getInt(API_ACCESS_TOKEN_EXPIRES) * 60);
+        this.refreshKeys = new JwtKeys(
+                config.getString(API_REFRESH_TOKEN_KEY).getBytes(StandardCharsets.UTF_8),
+                config.getString(API_REFRESH_TOKEN_SECRET).getBytes(StandardCharsets.UTF_8),
+                issuer,
+                config.getInt(API_REFRESH_TOKEN_EXPIRES) * 60);
+        this.cookieKeys = new JwtKeys(
+                config.getAuthenticationCookieKey(),
+                config.getAuthenticationCookieSecret(),
+                config.getAuthenticationCookieName(),
+                (int) config.getAuthenticationCookieRememberExpires());
     }
 
     public Map<String, String> getChallengeToken(String userUid) throws MangooJwtException {
@@ -57,13 +91,13 @@ public class AuthenticationService {
 
         var jwtData = JwtUtils.jwtData()
                 .withJwtID(CommonUtils.randomString(32))
-                .withSecret(config.getString(API_CHALLENGE_TOKEN_SECRET).getBytes(StandardCharsets.UTF_8))
-                .withKey(config.getString(API_CHALLENGE_TOKEN_KEY).getBytes(StandardCharsets.UTF_8))
+                .withSecret(challengeKeys.secret())
+                .withKey(challengeKeys.key())
                 .withClaims(Map.of(Const.NONCE, Utils.randomString()))
                 .withSubject(userUid)
-                .withTtlSeconds(300)
-                .withIssuer(config.getApplicationName())
-                .withAudience(config.getApplicationName());
+                .withTtlSeconds(challengeKeys.expires())
+                .withIssuer(issuer)
+                .withAudience(challengeKeys.audience());
 
         var jwt = JwtUtils.createJwt(jwtData);
 
@@ -72,33 +106,107 @@ public class AuthenticationService {
 
     public Map<String, String> getRefreshAndAccessToken(String userUid) throws MangooJwtException {
         Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
-        var user = dataService.findUserByUid(userUid);
-        if (user == null) {
+        if (!dataService.userExists(userUid)) {
             throw new MangooJwtException("User not found");
         }
 
-        var atid = CommonUtils.randomString(32);
+        String pepper = getPepper(userUid);
+        var token = new Token(CommonUtils.randomString(32), userUid, CommonUtils.randomString(32), CommonUtils.randomString(32), LocalDateTime.now());
+        dataService.save(token);
+
+        return createTokens(userUid, pepper, token.getUid(), token.getCurrent(), token.getAtid());
+    }
+
+    public Optional<Map<String, String>> rotateRefreshToken(JWTClaimsSet jwtClaimsSet) throws MangooJwtException, ParseException {
+        Objects.requireNonNull(jwtClaimsSet, Required.CLAIMS);
+
+        String userUid = jwtClaimsSet.getSubject();
+        String jti = jwtClaimsSet.getJWTID();
+        String family = jwtClaimsSet.getStringClaim(Const.FID);
+        if (StringUtils.isAnyBlank(userUid, jti)) {
+            return Optional.empty();
+        }
+
+        if (StringUtils.isBlank(family)) {
+            if (dataService.insertToken(new Token(jti, LocalDateTime.now()))) {
+                return Optional.of(getRefreshAndAccessToken(userUid));
+            }
+            return Optional.empty();
+        }
+
+        String pepper = jwtClaimsSet.getStringClaim(Const.PEPPER);
+        if (!isCurrentPepper(userUid, pepper)) {
+            revokeFamily(family);
+            return Optional.empty();
+        }
+
+        String next = CommonUtils.randomString(32);
+        String atid = CommonUtils.randomString(32);
+        if (dataService.rotateToken(family, jti, next, atid)) {
+            String previous = jwtClaimsSet.getStringClaim(Const.ATID);
+            if (StringUtils.isNotBlank(previous)) {
+                revocationService.revokeLater(previous, Instant.now().plusSeconds(accessKeys.expires()));
+            }
+
+            return Optional.of(createTokens(userUid, pepper, family, next, atid));
+        }
+
+        revokeFamily(family);
+        return Optional.empty();
+    }
+
+    public boolean revokeRefreshToken(JWTClaimsSet jwtClaimsSet) throws ParseException {
+        Objects.requireNonNull(jwtClaimsSet, Required.CLAIMS);
+
+        String jti = jwtClaimsSet.getJWTID();
+        String family = jwtClaimsSet.getStringClaim(Const.FID);
+        if (StringUtils.isBlank(jti)) {
+            return false;
+        }
+
+        if (StringUtils.isBlank(family)) {
+            return dataService.insertToken(new Token(jti, LocalDateTime.now()));
+        }
+
+        return dataService.deleteToken(family, jti);
+    }
+
+    private void revokeFamily(String family) {
+        dataService.deleteToken(family)
+                .map(Token::getAtid)
+                .filter(StringUtils::isNotBlank)
+                .ifPresent(this::blacklistToken);
+    }
+
+    private boolean isCurrentPepper(String userUid, String pepper) {
+        return StringUtils.isNotBlank(pepper) && dataService.findUserInfo(userUid)
+                .map(UserInfo::pepper)
+                .filter(pepper::equals)
+                .isPresent();
+    }
+
+    private Map<String, String> createTokens(String userUid, String pepper, String family, String jti, String atid) throws MangooJwtException {
         var jwtData = JwtUtils.jwtData()
                 .withJwtID(atid)
-                .withSecret(config.getString(API_ACCESS_TOKEN_SECRET).getBytes(StandardCharsets.UTF_8))
-                .withKey(config.getString(API_ACCESS_TOKEN_KEY).getBytes(StandardCharsets.UTF_8))
-                .withClaims(Map.of(Const.NONCE, Utils.randomString(), Const.PEPPER, getPepper(userUid)))
+                .withSecret(accessKeys.secret())
+                .withKey(accessKeys.key())
+                .withClaims(Map.of(Const.NONCE, Utils.randomString(), Const.PEPPER, pepper))
                 .withSubject(userUid)
-                .withTtlSeconds(config.getInt(API_ACCESS_TOKEN_EXPIRES) * 60L)
-                .withIssuer(config.getApplicationName())
-                .withAudience(config.getApplicationName());
+                .withTtlSeconds(accessKeys.expires())
+                .withIssuer(issuer)
+                .withAudience(accessKeys.audience());
 
         var accessToken = JwtUtils.createJwt(jwtData);
 
         jwtData = JwtUtils.jwtData()
-                .withJwtID(CommonUtils.randomString(32))
-                .withSecret(config.getString(API_REFRESH_TOKEN_SECRET).getBytes(StandardCharsets.UTF_8))
-                .withKey(config.getString(API_REFRESH_TOKEN_KEY).getBytes(StandardCharsets.UTF_8))
-                .withClaims(Map.of(Const.NONCE, Utils.randomString(), Const.PEPPER, getPepper(userUid), Const.ATID, atid))
+                .withJwtID(jti)
+                .withSecret(refreshKeys.secret())
+                .withKey(refreshKeys.key())
+                .withClaims(Map.of(Const.NONCE, Utils.randomString(), Const.PEPPER, pepper, Const.ATID, atid, Const.FID, family))
                 .withSubject(userUid)
-                .withTtlSeconds(config.getInt(API_REFRESH_TOKEN_EXPIRES) * 60L)
-                .withIssuer(config.getApplicationName())
-                .withAudience(config.getApplicationName());
+                .withTtlSeconds(refreshKeys.expires())
+                .withIssuer(issuer)
+                .withAudience(refreshKeys.audience());
 
         var refreshToken = JwtUtils.createJwt(jwtData);
 
@@ -108,11 +216,13 @@ public class AuthenticationService {
     private String getPepper(String userUid) {
         Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
 
-        String pepper = Strings.EMPTY;
-        var user = dataService.findUserByUid(userUid);
-        if (user != null) {
-            pepper = user.getPepper();
-            if (StringUtils.isBlank(pepper)) {
+        String pepper = dataService.findUserInfo(userUid)
+                .map(UserInfo::pepper)
+                .orElse(Strings.EMPTY);
+
+        if (StringUtils.isBlank(pepper)) {
+            var user = dataService.findUserByUid(userUid);
+            if (user != null) {
                 pepper = Utils.randomString();
                 user.setPepper(pepper);
                 dataService.save(user);
@@ -122,81 +232,73 @@ public class AuthenticationService {
         return pepper;
     }
 
-    private JWTClaimsSet parseJwt(String value, byte[] key, byte[] secret, String audience, int expires) throws MangooJwtException {
+    private JWTClaimsSet parseJwt(String value, JwtKeys keys) throws MangooJwtException {
         Objects.requireNonNull(value, Required.VALUE);
-        Objects.requireNonNull(secret, Required.SECRET);
 
         var jwtData = JwtUtils.jwtData()
-                .withKey(key)
-                .withSecret(secret)
-                .withTtlSeconds(expires)
-                .withIssuer(config.getApplicationName())
-                .withAudience(audience);
+                .withKey(keys.key())
+                .withSecret(keys.secret())
+                .withTtlSeconds(keys.expires())
+                .withIssuer(issuer)
+                .withAudience(keys.audience());
 
         return JwtUtils.parseJwt(value, jwtData);
     }
 
-    public JWTClaimsSet parseAccessToken(String value) throws MangooJwtException {
+    private JWTClaimsSet parseCached(String prefix, String value, JwtKeys keys) throws MangooJwtException {
         Objects.requireNonNull(value, Required.VALUE);
 
-        return parseJwt(value,
-                config.getString(API_ACCESS_TOKEN_KEY).getBytes(StandardCharsets.UTF_8),
-                config.getString(API_ACCESS_TOKEN_SECRET).getBytes(StandardCharsets.UTF_8),
-                config.getApplicationName(),
-                config.getInt(API_ACCESS_TOKEN_EXPIRES) * 60);
-    }
-
-    public JWTClaimsSet parseChallengeToken(String value) throws MangooJwtException {
-        Objects.requireNonNull(value, Required.VALUE);
+        String digest = prefix + Utils.sha256(value.getBytes(StandardCharsets.UTF_8));
+        JWTClaimsSet jwtClaimsSet = claims.getIfPresent(digest);
+        if (jwtClaimsSet == null) {
+            jwtClaimsSet = parseJwt(value, keys);
+            if (jwtClaimsSet != null && jwtClaimsSet.getExpirationTime() != null) {
+                claims.put(digest, jwtClaimsSet);
+            }
+        } else if (remaining(jwtClaimsSet).isZero()) {
+            claims.invalidate(digest);
+            throw new MangooJwtException("Token has expired");
+        }
 
-        return parseJwt(value,
-                config.getString(API_CHALLENGE_TOKEN_KEY).getBytes(StandardCharsets.UTF_8),
-                config.getString(API_CHALLENGE_TOKEN_SECRET).getBytes(StandardCharsets.UTF_8),
-                config.getApplicationName(),
-                300);
+        return jwtClaimsSet;
     }
 
-    public JWTClaimsSet parseRefreshToken(String value) throws MangooJwtException {
-        Objects.requireNonNull(value, Required.VALUE);
+    private static Duration remaining(JWTClaimsSet jwtClaimsSet) {
+        Date expiration = jwtClaimsSet.getExpirationTime();
+        if (expiration == null) {
+            return Duration.ZERO;
+        }
 
-        return parseJwt(value,
-                config.getString(API_REFRESH_TOKEN_KEY).getBytes(StandardCharsets.UTF_8),
-                config.getString(API_REFRESH_TOKEN_SECRET).getBytes(StandardCharsets.UTF_8),
-                config.getApplicationName(),
-                config.getInt(API_REFRESH_TOKEN_EXPIRES) * 60);
+        Duration remaining = Duration.between(Instant.now(), expiration.toInstant());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
     }
 
-    public JWTClaimsSet parseAuthenticationCookie(String value) throws MangooJwtException {
-        Objects.requireNonNull(value, Required.VALUE);
-
-        return parseJwt(value,
-                config.getAuthenticationCookieKey(),
-                config.getAuthenticationCookieSecret(),
-                config.getAuthenticationCookieName(),
-                (int) config.getAuthenticationCookieRememberExpires());
+    public JWTClaimsSet parseAccessToken(String value) throws MangooJwtException {
+        return parseCached(ACCESS, value, accessKeys);
     }
 
-    public void blacklistToken(String id) {
-        Argument.requireNonBlank(id, Required.ID);
-        cache.put(INVALID + id, Strings.EMPTY);
+    public JWTClaimsSet parseChallengeToken(String value) throws MangooJwtException {
+        return parseJwt(value, challengeKeys);
     }
 
-    public boolean isTokenBlacklisted(String id) {
-        Argument.requireNonBlank(id, Required.ID);
+    public JWTClaimsSet parseRefreshToken(String value) throws MangooJwtException {
+        return parseJwt(value, refreshKeys);
+    }
 
-        return cache.get(INVALID + id) != null;
+    public JWTClaimsSet parseAuthenticationCookie(String value) throws MangooJwtException {
+        return parseCached(COOKIE, value, cookieKeys);
     }
 
-    public boolean isRefreshBlacklisted(String id) {
+    public void blacklistToken(String id) {
         Argument.requireNonBlank(id, Required.ID);
-        return dataService.tokenExists(id);
+
+        int expires = Math.max(accessKeys.expires(), challengeKeys.expires());
+        revocationService.revoke(id, Instant.now().plusSeconds(expires));
     }
 
-    public void blacklistRefreshToken(String id) {
+    public boolean isTokenBlacklisted(String id) {
         Argument.requireNonBlank(id, Required.ID);
 
-        if (!isRefreshBlacklisted(id)) {
-            dataService.save(new Token(id, LocalDateTime.now()));
-        }
+        return revocationService.isRevoked(id);
     }
 }
\ No newline at end of file
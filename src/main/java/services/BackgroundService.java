@@ -0,0 +1,117 @@
+package services;
+
+import constants.Invalid;
+import constants.Required;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import utils.Utils;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+@Singleton
+public class BackgroundService {
+    private static final Logger LOG = LogManager.getLogger(BackgroundService.class);
+    private final Map<String, Integer> users = new ConcurrentHashMap<>();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final ThreadPoolExecutor executor;
+    private final int userLimit;
+
+    @Inject
+    public BackgroundService(@Named("application.background.threads") int threads,
+                             @Named("application.background.queue") int queue,
+                             @Named("application.background.user") int userLimit) {
+        Utils.checkCondition(threads > 0, Invalid.THREADS);
+        Utils.checkCondition(queue > 0, Invalid.QUEUE);
+        Utils.checkCondition(userLimit > 0, Invalid.USER_LIMIT);
+
+        this.userLimit = userLimit;
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue),
+                Thread.ofVirtual().name("background-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public boolean submit(String userUid, Runnable task) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+        Objects.requireNonNull(task, Required.TASK);
+
+        var admitted = new AtomicBoolean();
+        users.compute(userUid, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= userLimit) {
+                return count;
+            }
+
+            admitted.set(true);
+            return current + 1;
+        });
+
+        if (!admitted.get()) {
+            rejected.increment();
+            return false;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                    completed.increment();
+                } catch (Exception e) {
+                    failed.increment();
+                    LOG.error("Background task failed", e);
+                } finally {
+                    release(userUid);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            release(userUid);
+            rejected.increment();
+            return false;
+        }
+
+        return true;
+    }
+
+    public Map<String, Long> metrics() {
+        return Map.of(
+                "queued", (long) executor.getQueue().size(),
+                "running", (long) executor.getActiveCount(),
+                "completed", completed.sum(),
+                "failed", failed.sum(),
+                "rejected", rejected.sum());
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void release(String userUid) {
+        users.computeIfPresent(userUid, (key, count) -> count <= 1 ? null : count - 1);
+    }
+}
@@ -0,0 +1,132 @@
+package services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import constants.Const;
+import constants.Invalid;
+import constants.Required;
+import io.mangoo.persistence.interfaces.Datastore;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import models.Category;
+import utils.Changes;
+import utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32;
+
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Projections.include;
+import static com.mongodb.client.model.Sorts.ascending;
+
+@Singleton
+public class ChangeService {
+    private final Cache<String, Channel> channels = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+    private final Datastore datastore;
+    private final Semaphore waiters;
+    private final long timeout;
+
+    @Inject
+    public ChangeService(Datastore datastore,
+                         @Named("application.changes.timeout") long timeout,
+                         @Named("application.changes.waiters") int waiters) {
+        Utils.checkCondition(timeout > 0, Invalid.TIMEOUT);
+        Utils.checkCondition(waiters > 0, Invalid.WAITERS);
+
+        //Parked requests hold an Undertow worker thread, which defaults to eight per core
+        int workers = Math.max(2, Runtime.getRuntime().availableProcessors()) * 8;
+        this.datastore = Objects.requireNonNull(datastore, Required.DATASTORE);
+        this.timeout = timeout;
+        this.waiters = new Semaphore(Math.min(waiters, workers * 3 / 4));
+    }
+
+    public void publish(String userUid) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+
+        channel(userUid).signal();
+    }
+
+    public String token(String userUid) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+
+        return changes(userUid).token();
+    }
+
+    public Optional<Changes> await(String userUid, String token) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+        Objects.requireNonNull(token, Required.TOKEN);
+
+        //Take the signal before reading, so a change in between is not missed
+        var next = channel(userUid).next();
+        var changes = changes(userUid);
+
+        //Changes made on another node are picked up once the wait times out
+        if (changes.token().equals(token) && waiters.tryAcquire()) {
+            try {
+                next.get(timeout, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                //Intentionally left blank
+            } finally {
+                waiters.release();
+            }
+
+            changes = changes(userUid);
+        }
+
+        return changes.token().equals(token) ? Optional.empty() : Optional.of(changes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Changes changes(String userUid) {
+        List<Category> categories = new ArrayList<>();
+        datastore.query(Category.class)
+                .find(eq(Const.USER_UID, userUid))
+                .projection(include(Const.UID, Const.ITEM_COUNT, Const.VERSION))
+                .sort(ascending(Const.UID))
+                .into(categories);
+
+        var checksum = new CRC32();
+        Map<String, Long> counts = new HashMap<>();
+        for (Category category : categories) {
+            checksum.update((category.getUid() + ":" + category.getVersion() + ";").getBytes(StandardCharsets.UTF_8));
+            counts.put(category.getUid(), category.getItemCount());
+        }
+
+        return new Changes(Long.toString(checksum.getValue(), 36), counts);
+    }
+
+    private Channel channel(String userUid) {
+        return channels.get(userUid, key -> new Channel());
+    }
+
+    private static final class Channel {
+        private CompletableFuture<Void> next = new CompletableFuture<>();
+
+        synchronized CompletableFuture<Void> next() {
+            return next;
+        }
+
+        synchronized void signal() {
+            var current = next;
+            next = new CompletableFuture<>();
+            current.complete(null);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package services;
 
-import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoCursor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoException;
+import com.mongodb.MongoWriteException;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.Sorts;
 import com.mongodb.client.result.DeleteResult;
 import constants.Collections;
@@ -13,7 +18,7 @@ import constants.Invalid;
 import constants.Required;
 import de.svenkubiak.http.Http;
 import io.mangoo.persistence.interfaces.Datastore;
-import io.mangoo.routing.bindings.Authentication;
+import io.mangoo.utils.Argument;
 import io.mangoo.utils.CommonUtils;
 import io.mangoo.utils.DateUtils;
 import io.mangoo.utils.JsonUtils;
@@ -22,20 +27,24 @@ import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 import models.*;
+import models.enums.JobType;
 import models.enums.Role;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.util.Strings;
 import org.bson.Document;
 import org.bson.conversions.Bson;
+import utils.Page;
 import utils.Result;
+import utils.UserInfo;
 import utils.Utils;
-import utils.preview.LinkPreview;
 import utils.preview.LinkPreviewFetcher;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
@@ -45,6 +54,8 @@ import java.util.regex.Pattern;
 import static com.mongodb.client.model.Aggregates.*;
 import static com.mongodb.client.model.Filters.*;
 import static com.mongodb.client.model.Projections.include;
+import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.inc;
 import static com.mongodb.client.model.Updates.set;
 import static com.mongodb.client.model.Updates.unset;
 import static constants.Const.PLACEHOLDER_IMAGE;
@@ -52,16 +63,48 @@ import static constants.Const.PLACEHOLDER_IMAGE;
 @Singleton
 public class DataService {
     private static final Logger LOG = LogManager.getLogger(DataService.class);
-    private static final String FAILED_TO_FETCH_LINK_PREVIEW = "Failed to fetch link preview";
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final long SYNC_OVERLAP_MILLIS = 5000;
+    private static final String RELEASE = "release";
     private final Datastore datastore;
     private final MediaService mediaService;
+    private final ChangeService changeService;
+    private final JobService jobService;
+    private final PreviewService previewService;
+    private final HashingService hashingService;
     private final String applicationUrl;
+    private final int pageSize;
+    private final int syncRetention;
+    private final Cache<String, UserInfo> users;
 
     @Inject
-    public DataService(Datastore datastore, MediaService mediaService, @Named("application.url") String applicationUrl) {
+    public DataService(Datastore datastore,
+                       MediaService mediaService,
+                       ChangeService changeService,
+                       JobService jobService,
+                       PreviewService previewService,
+                       HashingService hashingService,
+                       @Named("application.url") String applicationUrl,
+                       @Named("application.pagination.size") int pageSize,
+                       @Named("application.sync.retention") int syncRetention,
+                       @Named("application.users.cache.size") long usersCacheSize,
+                       @Named("application.users.cache.ttl") long usersCacheTtl) {
+        Utils.checkCondition(usersCacheSize > 0, Invalid.CACHE_SIZE);
+        Utils.checkCondition(usersCacheTtl > 0, Invalid.TTL);
+
         this.datastore = Objects.requireNonNull(datastore, Required.DATASTORE);
         this.mediaService = Objects.requireNonNull(mediaService, Required.MEDIA_SERVICE);
+        this.changeService = Objects.requireNonNull(changeService, Required.CHANGE_SERVICE);
+        this.jobService = Objects.requireNonNull(jobService, Required.JOB_SERVICE);
+        this.previewService = Objects.requireNonNull(previewService, Required.PREVIEW_SERVICE);
+        this.hashingService = Objects.requireNonNull(hashingService, Required.HASHING_SERVICE);
         this.applicationUrl = Objects.requireNonNull(applicationUrl, Required.APPLICATION_URL);
+        this.pageSize = pageSize;
+        this.syncRetention = syncRetention;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(usersCacheSize)
+                .expireAfterWrite(Duration.ofMinutes(usersCacheTtl))
+                .build();
     }
 
     public void indexify() {
@@ -69,35 +112,229 @@ public class DataService {
                 .createIndex(
                         Indexes.descending("timestamp"),
                         new IndexOptions().expireAfter(8L, TimeUnit.DAYS));
+
+        datastore.query(Token.class)
+                .createIndex(Indexes.ascending(Const.USER_UID));
+
+        datastore.query(Item.class)
+                .createIndex(Indexes.ascending(Const.MEDIA_UID));
+
+        datastore.query(Item.class)
+                .createIndex(Indexes.compoundIndex(
+                        Indexes.ascending(Const.USER_UID),
+                        Indexes.descending(Const.TIMESTAMP),
+                        Indexes.descending(Const.UID)));
+
+        datastore.query(Item.class)
+                .createIndex(Indexes.compoundIndex(
+                        Indexes.ascending(Const.USER_UID),
+                        Indexes.ascending(Const.CATEGORY_UID),
+                        Indexes.descending(Const.TIMESTAMP),
+                        Indexes.descending(Const.UID)));
+
+        datastore.query(Change.class)
+                .createIndex(
+                        Indexes.ascending(Const.TIMESTAMP),
+                        new IndexOptions().expireAfter((long) syncRetention, TimeUnit.DAYS));
+
+        datastore.query(Change.class)
+                .createIndex(Indexes.compoundIndex(
+                        Indexes.ascending(Const.USER_UID),
+                        Indexes.ascending(Const.TIMESTAMP),
+                        Indexes.ascending(Const.ITEM_UID)));
     }
 
     public Optional<List<Map<String, Object>>> findCategories(String userUid) {
+        return toOutput(findAllCategories(userUid));
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Category> findAllCategories(String userUid) {
         Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
 
-        MongoCollection<Document> categories = datastore
-                .getMongoDatabase()
-                .getCollection("categories", Document.class);
-
-        var pipeline = Arrays.asList(
-                match(eq(Const.USER_UID, userUid)),
-                lookup("items", "uid", "categoryUid", "items"),
-                project(new Document("name", 1)
-                        .append("uid", 1)
-                        .append("itemCount", new Document("$size", "$items"))
-                )
-        );
+        List<Category> categories = new ArrayList<>();
+        datastore.query(Category.class)
+                .find(eq(Const.USER_UID, userUid))
+                .projection(include(Const.NAME, Const.UID, Const.ITEM_COUNT, Const.VERSION))
+                .into(categories);
 
-        List<Map<String, Object>> output = new ArrayList<>();
-        try (MongoCursor<Document> cursor = categories.aggregate(pipeline).iterator()) {
-            while (cursor.hasNext()) {
-                var document = cursor.next();
-                output.add(Map.of(
-                        Const.NAME, document.getString(Const.NAME),
-                        Const.UID, document.getString(Const.UID),
-                        Const.COUNT, String.valueOf(document.getInteger("itemCount", 0))
-                ));
+        return categories;
+    }
+
+    public Optional<List<Map<String, Object>>> toOutput(Collection<Category> categories) {
+        Objects.requireNonNull(categories, Required.CATEGORIES);
+
+        List<Map<String, Object>> output = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            output.add(Map.of(
+                    Const.NAME, category.getName(),
+                    Const.UID, category.getUid(),
+                    Const.COUNT, String.valueOf(category.getItemCount())
+            ));
+        }
+
+        return output.isEmpty() ? Optional.empty() : Optional.of(output);
+    }
+
+    public void updateItemCount(String userUid, String categoryUid, long delta) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+        Utils.checkCondition(Utils.isValidRandom(categoryUid), Invalid.CATEGORY_UID);
+
+        if (delta == 0) {
+            datastore.query(Collections.CATEGORIES).updateOne(
+                    and(
+                            eq(Const.USER_UID, userUid),
+                            eq(Const.UID, categoryUid)),
+                    inc(Const.VERSION, 1L));
+        } else {
+            var result = datastore.query(Collections.CATEGORIES).updateOne(
+                    and(
+                            eq(Const.USER_UID, userUid),
+                            eq(Const.UID, categoryUid)),
+                    combine(inc(Const.ITEM_COUNT, delta), inc(Const.VERSION, 1L)));
+
+            if (result.getModifiedCount() > 0) {
+                changeService.publish(userUid);
+            }
+        }
+    }
+
+    public void touchCategory(String userUid, String categoryUid) {
+        updateItemCount(userUid, categoryUid, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void recordChanges(String userUid, Collection<String> itemUids) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+        Objects.requireNonNull(itemUids, Required.ITEM_UIDS);
+
+        if (!itemUids.isEmpty()) {
+            var timestamp = LocalDateTime.now(ZoneOffset.UTC);
+            datastore.query(Change.class).insertMany(itemUids.stream()
+                    .map(itemUid -> new Change(userUid, itemUid, timestamp))
+                    .toList());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> sync(String userUid, String token, String cursor) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+
+        long now = Instant.now().toEpochMilli();
+        Map.Entry<LocalDateTime, String> position = null;
+        if (StringUtils.isNotBlank(cursor)) {
+            now = NumberUtils.toLong(StringUtils.substringBefore(cursor, "."), -1);
+            Utils.checkCondition(now > 0 && now <= Instant.now().toEpochMilli(), Invalid.CURSOR);
+            position = Utils.decodeCursor(StringUtils.substringAfter(cursor, "."));
+        }
+
+        long since = NumberUtils.toLong(token, -1);
+        boolean full = since < now - TimeUnit.DAYS.toMillis(syncRetention) || since > now;
+
+        List<Item> items = new ArrayList<>(MAX_PAGE_SIZE + 1);
+        Set<String> changed = new LinkedHashSet<>();
+        String next = null;
+        if (full) {
+            Bson filter = eq(Const.USER_UID, userUid);
+            if (position != null) {
+                filter = and(filter, or(
+                        lt(Const.TIMESTAMP, position.getKey()),
+                        and(eq(Const.TIMESTAMP, position.getKey()), lt(Const.UID, position.getValue()))));
+            }
+
+            datastore.query(Item.class)
+                    .find(filter)
+                    .sort(Sorts.descending(Const.TIMESTAMP, Const.UID))
+                    .limit(MAX_PAGE_SIZE + 1)
+                    .into(items);
+
+            if (items.size() > MAX_PAGE_SIZE) {
+                items = items.subList(0, MAX_PAGE_SIZE);
+                var last = items.getLast();
+                next = now + "." + Utils.encodeCursor(last.getTimestamp(), last.getUid());
+            }
+        } else {
+            var from = LocalDateTime.ofInstant(Instant.ofEpochMilli(since - SYNC_OVERLAP_MILLIS), ZoneOffset.UTC);
+            var to = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneOffset.UTC);
+            Bson filter = and(
+                    eq(Const.USER_UID, userUid),
+                    gte(Const.TIMESTAMP, from),
+                    lt(Const.TIMESTAMP, to));
+            if (position != null) {
+                filter = and(filter, or(
+                        gt(Const.TIMESTAMP, position.getKey()),
+                        and(eq(Const.TIMESTAMP, position.getKey()), gt(Const.ITEM_UID, position.getValue()))));
+            }
+
+            List<Change> changes = new ArrayList<>(MAX_PAGE_SIZE + 1);
+            datastore.query(Change.class)
+                    .find(filter)
+                    .sort(Sorts.ascending(Const.TIMESTAMP, Const.ITEM_UID))
+                    .limit(MAX_PAGE_SIZE + 1)
+                    .into(changes);
+
+            if (changes.size() > MAX_PAGE_SIZE) {
+                changes = changes.subList(0, MAX_PAGE_SIZE);
+                var last = changes.getLast();
+                next = now + "." + Utils.encodeCursor(last.getTimestamp(), last.getItemUid());
+            }
+            changes.forEach(change -> changed.add(change.getItemUid()));
+
+            if (!changed.isEmpty()) {
+                datastore.query(Item.class)
+                        .find(and(
+                                eq(Const.USER_UID, userUid),
+                                in(Const.UID, changed)))
+                        .into(items);
+
+                //Changed items which no longer exist have been deleted
+                items.forEach(item -> changed.remove(item.getUid()));
+            }
+        }
+
+        Map<String, Object> output = new HashMap<>();
+        output.put(Const.TOKEN, String.valueOf(now));
+        output.put("full", full);
+        output.put("items", toSyncOutput(items));
+        output.put("deleted", changed);
+        output.put("categories", toOutput(findAllCategories(userUid)).orElse(List.of()));
+        if (next != null) {
+            output.put("next", next);
+        }
+
+        return output;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void reconcileItemCounts() {
+        //Only categories written to since their count was last verified can have drifted
+        datastore.query(Collections.CATEGORIES)
+                .find(expr(new Document("$ne", List.of("$" + Const.VERSION, "$" + Const.CHECKED))), Document.class)
+                .projection(include(Const.UID, Const.USER_UID, Const.ITEM_COUNT, Const.VERSION))
+                .forEach(doc -> reconcileItemCount((Document) doc));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void reconcileItemCount(Document category) {
+        String uid = category.getString(Const.UID);
+        String userUid = category.getString(Const.USER_UID);
+        var actual = (Number) category.get(Const.ITEM_COUNT);
+        var version = category.get(Const.VERSION);
+        long expected = datastore.countAll(Item.class, and(eq(Const.USER_UID, userUid), eq(Const.CATEGORY_UID, uid)));
+
+        //Every $inc of the count also bumps the version, so a concurrent change turns this into a no-op until the next run
+        var filter = and(eq("_id", category.getObjectId("_id")), eq(Const.VERSION, version));
+        if (actual != null && actual.longValue() == expected) {
+            datastore.query(Collections.CATEGORIES).updateOne(filter, set(Const.CHECKED, version));
+        } else {
+            long next = version instanceof Number number ? number.longValue() + 1 : 1L;
+            var result = datastore.query(Collections.CATEGORIES).updateOne(filter,
+                    combine(set(Const.ITEM_COUNT, expected), set(Const.VERSION, next), set(Const.CHECKED, next)));
+
+            if (result.getModifiedCount() > 0) {
+                LOG.info("Repaired item count of category {} from {} to {}", uid, actual, expected);
+                changeService.publish(userUid);
             }
-            return output.isEmpty() ? Optional.empty() : Optional.of(output);
         }
     }
 
@@ -113,20 +350,17 @@ public class DataService {
     }
 
     public boolean userExists(String userUid) {
-        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
-        return datastore.find(User.class, eq(Const.UID, userUid)) != null;
+        return findUserInfo(userUid).isPresent();
     }
 
-    public Optional<String> authenticateUser(String username, String password, Authentication authentication) {
-        Objects.requireNonNull(username, Required.USERNAME);
-        Objects.requireNonNull(password, Required.PASSWORD);
-
-        User user = datastore.find(User.class, eq(Const.USERNAME, username));
-        if (user != null && authentication.isValidLogin(user.getUid(), password, user.getSalt(), user.getPassword())) {
-            return Optional.of(user.getUid());
-        }
+    public Optional<UserInfo> findUserInfo(String userUid) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
 
-        return Optional.empty();
+        //Loading inside the cache keeps an invalidation during the load from being overwritten with a stale value
+        return Optional.ofNullable(users.get(userUid, key -> {
+            var user = findUserByUid(key);
+            return user != null ? UserInfo.of(user) : null;
+        }));
     }
 
     @SuppressWarnings("unchecked")
@@ -141,25 +375,93 @@ public class DataService {
                         eq(Const.USER_UID, userUid),
                         eq(Const.CATEGORY_UID, categoryUid))).into(items);
 
+        return Optional.of(toOutput(items));
+    }
+
+    @SuppressWarnings("unchecked")
+    public Page findItems(String userUid, String categoryUid, String cursor, int limit) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+        Utils.checkCondition(Utils.isValidRandom(categoryUid), Invalid.CATEGORY_UID);
+
+        int size = limit > 0 ? Math.min(limit, MAX_PAGE_SIZE) : pageSize;
+        Bson filter = and(
+                eq(Const.USER_UID, userUid),
+                eq(Const.CATEGORY_UID, categoryUid));
+
+        if (StringUtils.isNotBlank(cursor)) {
+            var position = Utils.decodeCursor(cursor);
+            filter = and(filter, or(
+                    lt(Const.TIMESTAMP, position.getKey()),
+                    and(eq(Const.TIMESTAMP, position.getKey()), lt(Const.UID, position.getValue()))));
+        }
+
+        List<Item> items = new ArrayList<>(size + 1);
+        datastore
+                .query(Item.class)
+                .find(filter)
+                .sort(Sorts.descending(Const.TIMESTAMP, Const.UID))
+                .limit(size + 1)
+                .into(items);
+
+        String next = null;
+        if (items.size() > size) {
+            items = items.subList(0, size);
+            var last = items.getLast();
+            next = Utils.encodeCursor(last.getTimestamp(), last.getUid());
+        }
+
+        return new Page(toOutput(items), next);
+    }
+
+    private List<Map<String, Object>> toOutput(List<Item> items) {
+        Set<String> existingMedia = findExistingMedia(items);
+
         List<Map<String, Object>> output = new ArrayList<>();
         for (Item item: items) {
-            output.add(Map.of(
-                    Const.UID, item.getUid(),
-                    "url", item.getUrl(),
-                    "image", getImage(item),
-                    "title", item.getTitle(),
-                    "description", StringUtils.isNotBlank(item.getDescription()) ? item.getDescription() : Strings.EMPTY,
-                    "domain", StringUtils.isNotBlank(item.getDomain()) ? item.getDomain() : Strings.EMPTY,
-                    "sort", item.getTimestamp().toEpochSecond(ZoneOffset.UTC),
-                    "archived", item.isArchived(),
-                    "added", DateUtils.getPrettyTime(item.getTimestamp()))); // FIX ME: Remove in later API version
+            Map<String, Object> map = toMap(item, existingMedia);
+            map.put("added", DateUtils.getPrettyTime(item.getTimestamp())); // FIX ME: Remove in later API version
+            output.add(map);
         }
 
-        return Optional.of(output);
+        return output;
     }
 
-    private String getImage(Item item) {
-        if (StringUtils.isNotBlank(item.getMediaUid()) && mediaService.exists(item.getMediaUid())) {
+    private List<Map<String, Object>> toSyncOutput(List<Item> items) {
+        Set<String> existingMedia = findExistingMedia(items);
+
+        List<Map<String, Object>> output = new ArrayList<>();
+        for (Item item: items) {
+            Map<String, Object> map = toMap(item, existingMedia);
+            map.put(Const.CATEGORY, item.getCategoryUid());
+            output.add(map);
+        }
+
+        return output;
+    }
+
+    private Map<String, Object> toMap(Item item, Set<String> existingMedia) {
+        Map<String, Object> map = new HashMap<>();
+        map.put(Const.UID, item.getUid());
+        map.put("url", item.getUrl());
+        map.put("image", getImage(item, existingMedia));
+        map.put("title", item.getTitle());
+        map.put("description", StringUtils.isNotBlank(item.getDescription()) ? item.getDescription() : Strings.EMPTY);
+        map.put("domain", StringUtils.isNotBlank(item.getDomain()) ? item.getDomain() : Strings.EMPTY);
+        map.put("sort", item.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+        map.put("archived", item.isArchived());
+
+        return map;
+    }
+
+    private Set<String> findExistingMedia(List<Item> items) {
+        return mediaService.findExisting(items.stream()
+                .map(Item::getMediaUid)
+                .filter(StringUtils::isNotBlank)
+                .toList());
+    }
+
+    private String getImage(Item item, Set<String> existingMedia) {
+        if (StringUtils.isNotBlank(item.getMediaUid()) && existingMedia.contains(item.getMediaUid())) {
             return applicationUrl + "/media/image/" + item.getMediaUid();
         } else if (StringUtils.isNotBlank(item.getImage())) {
             return item.getImage();
@@ -173,13 +475,27 @@ public class DataService {
         Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
 
         Category trash = findTrash(userUid);
+        var item = findItem(itemUid, userUid);
+        if (item == null) {
+            return Result.Failure.user("Could not find item");
+        }
+
         var updateResult = datastore.query(Collections.ITEMS).updateOne(
                 and(
                     eq(Const.USER_UID, userUid),
-                    eq(Const.UID, itemUid)),
+                    eq(Const.UID, itemUid),
+                    eq(Const.CATEGORY_UID, item.getCategoryUid())),
                         set(Const.CATEGORY_UID, trash.getUid()));
 
-        return updateResult.getModifiedCount() == 1 ? Result.Success.empty() : Result.Failure.server("Failed to delete item");
+        if (updateResult.getModifiedCount() == 1) {
+            updateItemCount(userUid, item.getCategoryUid(), -1);
+            updateItemCount(userUid, trash.getUid(), 1);
+            recordChanges(userUid, List.of(itemUid));
+
+            return Result.Success.empty();
+        }
+
+        return Result.Failure.server("Failed to delete item");
     }
 
     @SuppressWarnings("unchecked")
@@ -188,16 +504,17 @@ public class DataService {
 
         Category trash = findTrash(userUid);
         List<String> mediaUidsToDelete = new ArrayList<>();
+        List<String> itemUids = new ArrayList<>();
         datastore.query(Item.class)
                 .find(and(
                         eq(Const.USER_UID, userUid),
-                        eq(Const.CATEGORY_UID, trash.getUid()),
-                        ne(Const.MEDIA_UID, null),
-                        ne(Const.MEDIA_UID, Strings.EMPTY)))
-                .projection(include(Const.MEDIA_UID, Const.ARCHIVE_UID))
+                        eq(Const.CATEGORY_UID, trash.getUid())))
+                .projection(include(Const.UID, Const.MEDIA_UID, Const.ARCHIVE_UID))
                 .forEach(doc -> {
                     if (doc instanceof Item item) {
+                        itemUids.add(item.getUid());
                         mediaUidsToDelete.add(item.getMediaUid());
+                        mediaUidsToDelete.add(item.getArchiveUid());
                     }
                 });
 
@@ -207,7 +524,9 @@ public class DataService {
                         eq(Const.CATEGORY_UID, trash.getUid())));
 
         if (deleteResult.wasAcknowledged()) {
-            mediaUidsToDelete.forEach(mediaUid -> mediaService.delete(mediaUid, userUid));
+            updateItemCount(userUid, trash.getUid(), -deleteResult.getDeletedCount());
+            recordChanges(userUid, itemUids);
+            mediaUidsToDelete.forEach(mediaService::clean);
         }
 
         return deleteResult.wasAcknowledged() ? Result.Success.empty() : Result.Failure.server("Failed to empty trash");
@@ -264,9 +583,16 @@ public class DataService {
             var updateResult = datastore.query(Collections.ITEMS).updateOne(
                     and(
                             eq(Const.USER_UID, userUid),
-                            eq(Const.UID, itemUid)),
+                            eq(Const.UID, itemUid),
+                            eq(Const.CATEGORY_UID, sourceCategory.getUid())),
                     set(Const.CATEGORY_UID, categoryUid));
 
+            if (updateResult.getModifiedCount() == 1) {
+                updateItemCount(userUid, sourceCategory.getUid(), -1);
+                updateItemCount(userUid, targetCategory.getUid(), 1);
+                recordChanges(userUid, List.of(itemUid));
+            }
+
             return updateResult.wasAcknowledged() ? Result.Success.empty() : Result.Failure.server("Failed to move item");
         } else {
             return Result.Failure.server("Can not move an item into the same category");
@@ -276,20 +602,11 @@ public class DataService {
     public Result.Of addItem(String userUid, String url, String categoryUid) {
         Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
         Utils.checkCondition(Utils.isValidURL(url), Invalid.URL);
-        var user = findUserByUid(userUid);
 
-        if (user == null) {
+        if (!userExists(userUid)) {
             return Result.Failure.user("user does not exist");
         }
 
-        LinkPreview linkPreview;
-        try {
-            linkPreview = LinkPreviewFetcher.fetch(url, user.getLanguage());
-        } catch (Exception e) {
-            LOG.error(FAILED_TO_FETCH_LINK_PREVIEW, e);
-            return Result.Failure.server(FAILED_TO_FETCH_LINK_PREVIEW);
-        }
-
         Category category = null;
         if (Utils.isValidRandom(categoryUid)) {
             category = findCategory(categoryUid, userUid);
@@ -300,32 +617,77 @@ public class DataService {
         }
 
         if (category != null) {
-            String categoryResult = save(category);
-            String image = linkPreview.image();
-
             var item = Item.create()
                     .withUserUid(userUid)
                     .withCategoryUid(category.getUid())
                     .withUrl(url)
-                    .withImage(image)
-                    .withTitle(linkPreview.title())
-                    .withDomain(linkPreview.domain())
-                    .withDescription(linkPreview.description());
-
-            if (!PLACEHOLDER_IMAGE.equals(image) && StringUtils.isNotBlank(image)) {
-                item.setMediaUid(mediaService.fetchAndStore(image, userUid).orElse(Utils.randomString()));
-            } else {
-                item.setMediaUid(Utils.randomString());
-            }
+                    .withImage(PLACEHOLDER_IMAGE)
+                    .withTitle(url)
+                    .withDomain(Utils.getDomain(url))
+                    .withDescription(Strings.EMPTY);
 
             String itemResult = save(item);
+            if (StringUtils.isNotBlank(itemResult)) {
+                updateItemCount(userUid, category.getUid(), 1);
+                recordChanges(userUid, List.of(item.getUid()));
+                jobService.enqueue(JobType.ENRICH, userUid, Map.of(Const.ITEM_UID, item.getUid()));
 
-            return StringUtils.isNoneBlank(categoryResult, itemResult) ? Result.Success.empty() : Result.Failure.server("Failed to save bookmark");
+                return Result.Success.empty();
+            }
+
+            return Result.Failure.server("Failed to save bookmark");
         } else {
             return Result.Failure.user("category does not exist");
         }
     }
 
+    public void enrich(String userUid, String itemUid) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+        Utils.checkCondition(Utils.isValidRandom(itemUid), Invalid.ITEM_UID);
+
+        var user = findUserInfo(userUid);
+        var item = findItem(itemUid, userUid);
+        if (user.isEmpty() || item == null) {
+            return;
+        }
+
+        var linkPreview = previewService.fetch(item.getUrl(), user.get().language());
+        String image = linkPreview.image();
+        Optional<String> stored = Optional.empty();
+        if (!PLACEHOLDER_IMAGE.equals(image) && StringUtils.isNotBlank(image)) {
+            stored = mediaService.fetchAndStore(image, userUid);
+        }
+        String mediaUid = stored.orElse(item.getMediaUid());
+
+        Item updated;
+        try {
+            updated = (Item) datastore.query(Item.class).findOneAndUpdate(
+                    and(
+                            eq(Const.USER_UID, userUid),
+                            eq(Const.UID, itemUid)),
+                    combine(
+                            set("title", linkPreview.title()),
+                            set("description", linkPreview.description()),
+                            set("domain", linkPreview.domain()),
+                            set("image", StringUtils.isNotBlank(image) ? image : PLACEHOLDER_IMAGE),
+                            set(Const.MEDIA_UID, mediaUid)),
+                    new FindOneAndUpdateOptions()
+                            .projection(include(Const.CATEGORY_UID))
+                            .returnDocument(ReturnDocument.AFTER));
+        } catch (MongoException e) {
+            stored.ifPresent(mediaService::delete);
+            throw e;
+        }
+
+        if (updated != null) {
+            touchCategory(userUid, updated.getCategoryUid());
+            recordChanges(userUid, List.of(itemUid));
+            stored.ifPresent(uid -> mediaService.clean(item.getMediaUid()));
+        } else {
+            stored.ifPresent(mediaService::delete);
+        }
+    }
+
     public Result.Of addCategory(String userUid, String name) {
         Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
         Utils.checkCondition(Utils.isValidName(name), Invalid.CATEGORY_NAME);
@@ -348,13 +710,30 @@ public class DataService {
         Category trash = findTrash(userUid);
 
         if (!categoryUid.equals(inbox.getUid()) && !categoryUid.equals(trash.getUid())) {
+            List<String> itemUids = new ArrayList<>();
             datastore.query(Item.class)
+                    .find(and(
+                            eq(Const.USER_UID, userUid),
+                            eq(Const.CATEGORY_UID, categoryUid)))
+                    .projection(include(Const.UID))
+                    .forEach(doc -> {
+                        if (doc instanceof Item item) {
+                            itemUids.add(item.getUid());
+                        }
+                    });
+
+            var updateResult = datastore.query(Item.class)
                     .updateMany(
                             and(
                                     eq(Const.USER_UID, userUid),
                                     eq(Const.CATEGORY_UID, categoryUid)),
                             set(Const.CATEGORY_UID, trash.getUid()));
 
+            if (updateResult.getModifiedCount() > 0) {
+                updateItemCount(userUid, trash.getUid(), updateResult.getModifiedCount());
+                recordChanges(userUid, itemUids);
+            }
+
             var deleteResult = datastore.query(Category.class)
                     .deleteOne(
                             and(
@@ -382,7 +761,12 @@ public class DataService {
     public String save(Object object) {
         Objects.requireNonNull(object, Required.OBJECT);
 
-        return datastore.save(object);
+        String id = datastore.save(object);
+        if (object instanceof User user) {
+            users.invalidate(user.getUid());
+        }
+
+        return id;
     }
 
     public Category findCategoryByName(String categoryName, String userUid) {
@@ -396,32 +780,39 @@ public class DataService {
                         eq(Const.USER_UID, userUid)));
     }
 
-    public boolean deleteAccount(String password, String userUid) {
+    public Optional<Boolean> deleteAccount(String password, String userUid) {
         Objects.requireNonNull(password, Required.PASSWORD);
         Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
 
         var user = findUserByUid(userUid);
-        if (user != null && user.getPassword().equals(CommonUtils.hashArgon2(password, user.getSalt()))) {
+        if (user == null) {
+            return Optional.of(false);
+        }
+
+        //An empty result means the attempt was throttled
+        var valid = hashingService.verify(userUid, null, () -> user.getPassword().equals(CommonUtils.hashArgon2(password, user.getSalt())));
+        if (valid.isPresent() && valid.get()) {
             List<Item> items = datastore.findAll(Item.class, eq(Const.USER_UID, userUid), Sorts.ascending(Const.USER_UID));
-            items.stream()
-                    .filter(item -> StringUtils.isNotBlank(item.getMediaUid()))
-                    .forEach(item -> mediaService.delete(item.getMediaUid(), userUid));
+            items.forEach(item -> {
+                mediaService.clean(item.getMediaUid());
+                mediaService.clean(item.getArchiveUid());
+            });
 
             DeleteResult deleteCategories = datastore.query(Category.class).deleteMany(eq(Const.USER_UID, userUid));
             DeleteResult deleteItems = datastore.query(Item.class).deleteMany(eq(Const.USER_UID, userUid));
+            datastore.query(Change.class).deleteMany(eq(Const.USER_UID, userUid));
+            datastore.query(Token.class).deleteMany(eq(Const.USER_UID, userUid));
             DeleteResult deleteUser = datastore.query(User.class).deleteOne(eq(Const.UID, userUid));
+            users.invalidate(userUid);
 
-            return deleteCategories.wasAcknowledged() && deleteItems.wasAcknowledged() && deleteUser.wasAcknowledged();
+            return Optional.of(deleteCategories.wasAcknowledged() && deleteItems.wasAcknowledged() && deleteUser.wasAcknowledged());
         }
 
-        return false;
+        return valid;
     }
 
     public boolean userHasMfa(String userUid) {
-        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
-
-        var user = findUserByUid(userUid);
-        return user != null && user.isMfa();
+        return findUserInfo(userUid).map(UserInfo::mfa).orElse(false);
     }
 
     public boolean isValidMfa(String userUid, String otp) {
@@ -505,37 +896,13 @@ public class DataService {
         var user = findUserByUid(userUid);
         if (user != null) {
             user.setPepper(Utils.randomString());
+            datastore.query(Token.class).deleteMany(eq(Const.USER_UID, userUid));
             return save(user) != null;
         }
 
         return false;
     }
 
-    public void resync(String userUid) {
-        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
-        LOG.info("Started resync");
-        var user = findUserByUid(userUid);
-
-        datastore.findAll(Item.class, eq("userUid", userUid), Sorts.ascending("timestamp"))
-                .forEach(item -> {
-                    LinkPreview linkPreview;
-                    try {
-                        linkPreview = LinkPreviewFetcher.fetch(item.getUrl(), user.getLanguage());
-                        String image = linkPreview.image();
-                        item.setImage(image);
-                        if (!PLACEHOLDER_IMAGE.equals(image) && StringUtils.isNotBlank(image)) {
-                            mediaService.clean(item.getMediaUid(), item.getUserUid());
-                            item.setMediaUid(mediaService.fetchAndStore(item.getImage(), item.getUserUid()).orElse(null));
-                        }
-                    } catch (Exception e) {
-                        item.setImage(PLACEHOLDER_IMAGE);
-                        LOG.error(FAILED_TO_FETCH_LINK_PREVIEW, e);
-                    }
-                    save(item);
-        });
-        LOG.info("Finished resync");
-    }
-
     @SuppressWarnings("unchecked")
     public void upgrade() {
         //Remove outdated Item attributes
@@ -557,6 +924,7 @@ public class DataService {
         datastore.query(Collections.USERS).updateMany(
                 not(exists("language")),
                 set("language", Const.DEFAULT_LANGUAGE));
+        users.invalidateAll();
 
         //Add new archived value
         datastore.query(Collections.ITEMS).updateMany(
@@ -579,6 +947,29 @@ public class DataService {
                 set("role", "CUSTOM")
         );
 
+        //Shared media blobs require a non unique mediaUid index
+        datastore.query(Collections.ITEMS).listIndexes().forEach(index -> {
+            var document = (Document) index;
+            var key = document.get("key", Document.class);
+            if (key != null && key.size() == 1 && key.containsKey(Const.MEDIA_UID) && document.getBoolean("unique", false)) {
+                datastore.query(Collections.ITEMS).dropIndex(document.getString(Const.NAME));
+            }
+        });
+
+        //Invalidate listing ETags once per release as the output format may have changed
+        String release = Utils.getVersion();
+        var previous = (Document) datastore.query(Collections.SETTINGS).findOneAndUpdate(
+                eq("_id", RELEASE),
+                set(Const.VERSION, release),
+                new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.BEFORE));
+
+        if (previous == null || !release.equals(previous.getString(Const.VERSION))) {
+            datastore.query(Collections.CATEGORIES).updateMany(
+                    new Document(),
+                    inc(Const.VERSION, 1L));
+            LOG.info("Invalidated listing ETags for release {}", release);
+        }
+
         //Updated items which have null value mediaUids
         List<Item> items = new ArrayList<>();
         datastore.query(Collections.ITEMS)
@@ -593,6 +984,13 @@ public class DataService {
         }
 
         Thread.ofVirtual().start(() -> {
+            //Merge duplicate media into reference counted blobs
+            if (mediaService.deduplicate() > 0) {
+                datastore.query(Collections.CATEGORIES).updateMany(
+                        new Document(),
+                        inc(Const.VERSION, 1L));
+            }
+
             //Remove stored media with null uid valus
             datastore.query(Const.FILEDPAPERS_FILES)
                     .find(Filters.eq(Const.METADATA_UID, null))
@@ -628,12 +1026,10 @@ public class DataService {
                 datastore.query(Const.FILEDPAPERS_FILES)
                         .find(filter)
                         .forEach(media -> {
-                            Document metadata = ((Document) media).get("metadata", Document.class);
+                            var document = (Document) media;
+                            var uid = document.get("metadata", Document.class).getString(Const.UID);
 
-                            var uid = metadata.getString(Const.UID);
-                            var userUid = metadata.getString(Const.USER_UID);
-
-                            mediaService.delete(uid, userUid);
+                            mediaService.delete(document.getObjectId("_id"));
                             LOG.info("Deleted unused media with uid {}", uid);
                         });
             }
@@ -647,8 +1043,13 @@ public class DataService {
 
         var category = findCategory(categoryUid, userUid);
         if (category != null && category.getRole() != Role.INBOX && category.getRole() != Role.TRASH) {
-            category.setName(name);
-            return save(category) != null ? Result.Success.empty() : Result.Failure.server("Failed to rename category");
+            var updateResult = datastore.query(Collections.CATEGORIES).updateOne(
+                    and(
+                            eq(Const.USER_UID, userUid),
+                            eq(Const.UID, categoryUid)),
+                    combine(set(Const.NAME, name), inc(Const.VERSION, 1L)));
+
+            return updateResult.wasAcknowledged() ? Result.Success.empty() : Result.Failure.server("Failed to rename category");
         } else {
             return Result.Failure.user("Category either not exists it is Inbox or Trash or a category with same name already exists");
         }
@@ -668,10 +1069,14 @@ public class DataService {
             if (result.isValid()) {
                 Map<String, String> json = JsonUtils.toFlatMap(result.body());
                 if (!json.isEmpty() && json.get("success").equals("true")) {
-                    String archiveUid = mediaService.store(json.get("archive").getBytes(StandardCharsets.UTF_8), item.getUserUid());
+                    String archiveUid = mediaService.store(json.get("archive").getBytes(StandardCharsets.UTF_8), item.getUserUid(), "text/plain");
+                    String previousArchiveUid = item.getArchiveUid();
                     item.setArchived(true);
                     item.setArchiveUid(archiveUid);
                     save(item);
+                    mediaService.clean(previousArchiveUid);
+                    touchCategory(item.getUserUid(), item.getCategoryUid());
+                    recordChanges(item.getUserUid(), List.of(item.getUid()));
 
                     return Result.Success.empty();
                 }
@@ -691,7 +1096,48 @@ public class DataService {
         return mediaService.retrieve(item.getArchiveUid());
     }
 
-    public boolean tokenExists(String id) {
-        return datastore.query(Token.class).find(eq ("uid", id)).first() != null;
+    @SuppressWarnings("unchecked")
+    public boolean insertToken(Token token) {
+        Objects.requireNonNull(token, Required.TOKEN);
+
+        try {
+            datastore.query(Token.class).insertOne(token);
+            return true;
+        } catch (MongoWriteException e) {
+            if (e.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    public boolean rotateToken(String uid, String current, String next, String atid) {
+        Argument.requireNonBlank(uid, Required.UID);
+        Argument.requireNonBlank(current, Required.ID);
+        Argument.requireNonBlank(next, Required.ID);
+        Argument.requireNonBlank(atid, Required.ID);
+
+        return datastore.query(Token.class).updateOne(
+                and(eq(Const.UID, uid), eq(Const.CURRENT, current)),
+                combine(
+                        set(Const.CURRENT, next),
+                        set(Const.ATID, atid),
+                        set(Const.TIMESTAMP, LocalDateTime.now())))
+                .getModifiedCount() == 1;
+    }
+
+    public boolean deleteToken(String uid, String current) {
+        Argument.requireNonBlank(uid, Required.UID);
+        Argument.requireNonBlank(current, Required.ID);
+
+        return datastore.query(Token.class)
+                .deleteOne(and(eq(Const.UID, uid), eq(Const.CURRENT, current)))
+                .getDeletedCount() == 1;
+    }
+
+    public Optional<Token> deleteToken(String uid) {
+        Argument.requireNonBlank(uid, Required.UID);
+
+        return Optional.ofNullable((Token) datastore.query(Token.class).findOneAndDelete(eq(Const.UID, uid)));
     }
 }
\ No newline at end of file
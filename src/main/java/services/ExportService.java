@@ -0,0 +1,340 @@
+package services;
+
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.GridFSDownloadStream;
+import com.mongodb.client.gridfs.GridFSUploadStream;
+import com.mongodb.client.gridfs.model.GridFSUploadOptions;
+import com.mongodb.client.model.Indexes;
+import constants.Const;
+import constants.Invalid;
+import constants.Required;
+import io.mangoo.persistence.interfaces.Datastore;
+import io.mangoo.utils.JsonUtils;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import models.Item;
+import models.Job;
+import models.enums.JobType;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import utils.MediaInfo;
+import utils.Utils;
+import utils.io.BookmarkWriter;
+import utils.io.Leaf;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.exists;
+import static com.mongodb.client.model.Filters.lt;
+import static com.mongodb.client.model.Filters.ne;
+import static com.mongodb.client.model.Projections.include;
+import static com.mongodb.client.model.Sorts.ascending;
+import static com.mongodb.client.model.Sorts.descending;
+import static com.mongodb.client.model.Sorts.orderBy;
+import static com.mongodb.client.model.Updates.set;
+
+@Singleton
+public class ExportService {
+    private static final Logger LOG = LogManager.getLogger(ExportService.class);
+    private static final String BUCKET_NAME = "exports";
+    private static final String EXPORTS_FILES = BUCKET_NAME + ".files";
+    private static final String CONTENT_TYPE = "application/zip";
+    private static final Duration RETENTION = Duration.ofDays(7);
+    private static final int BATCH_SIZE = 500;
+    private final Datastore datastore;
+    private final DataService dataService;
+    private final JobService jobService;
+    private final MediaService mediaService;
+    private final NotificationService notificationService;
+    private final GridFSBucket bucket;
+
+    @Inject
+    public ExportService(Datastore datastore,
+                         DataService dataService,
+                         JobService jobService,
+                         MediaService mediaService,
+                         NotificationService notificationService) {
+        this.datastore = Objects.requireNonNull(datastore, Required.DATASTORE);
+        this.dataService = Objects.requireNonNull(dataService, Required.DATA_SERVICE);
+        this.jobService = Objects.requireNonNull(jobService, Required.JOB_SERVICE);
+        this.mediaService = Objects.requireNonNull(mediaService, Required.MEDIA_SERVICE);
+        this.notificationService = Objects.requireNonNull(notificationService, Required.NOTIFICATION_SERVICE);
+        this.bucket = GridFSBuckets.create(datastore.getMongoDatabase(), BUCKET_NAME);
+    }
+
+    public void indexify() {
+        datastore.query(EXPORTS_FILES).createIndex(Indexes.ascending(Const.METADATA_USER_UID));
+    }
+
+    public boolean start(String userUid) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+
+        return jobService.enqueue(JobType.EXPORT, userUid, Map.of(), key(userUid)).isPresent();
+    }
+
+    public boolean isRunning(String userUid) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+
+        return jobService.findByKey(key(userUid)).isPresent();
+    }
+
+    public void run(Job job) throws IOException {
+        Objects.requireNonNull(job, Required.JOB);
+
+        String userUid = job.getUserUid();
+        var user = dataService.findUserByUid(userUid);
+        if (user == null) {
+            return;
+        }
+
+        String uid = Utils.randomString();
+        GridFSUploadStream uploadStream = bucket.openUploadStream(uid, new GridFSUploadOptions()
+                .metadata(new Document(Const.UID, uid)
+                        .append(Const.USER_UID, userUid)
+                        .append(Const.CONTENT_TYPE, CONTENT_TYPE)));
+
+        MessageDigest digest = sha256();
+        var zip = new ZipOutputStream(new DigestOutputStream(new BufferedOutputStream(uploadStream), digest));
+        boolean complete = false;
+        try {
+            zip.putNextEntry(new ZipEntry("bookmarks.html"));
+            html(userUid, zip);
+            zip.closeEntry();
+
+            Set<String> media = new LinkedHashSet<>();
+            Set<String> archives = new LinkedHashSet<>();
+            zip.putNextEntry(new ZipEntry("items.jsonl"));
+            jsonl(userUid, zip, media, archives);
+            zip.closeEntry();
+
+            for (String mediaUid : media) {
+                copy(mediaUid, "media/" + mediaUid, zip, false);
+            }
+            for (String archiveUid : archives) {
+                copy(archiveUid, "archives/" + archiveUid + ".html", zip, true);
+            }
+
+            zip.close();
+            complete = true;
+        } finally {
+            if (!complete) {
+                uploadStream.abort();
+            }
+        }
+
+        ObjectId id = uploadStream.getObjectId();
+        datastore.query(EXPORTS_FILES).updateOne(eq("_id", id), set(Const.METADATA_SHA256, HexFormat.of().formatHex(digest.digest())));
+        bucket.find(and(eq(Const.METADATA_USER_UID, userUid), ne("_id", id)))
+                .forEach(file -> bucket.delete(file.getObjectId()));
+
+        LOG.info("Finished export {} of user {}", uid, userUid);
+        notificationService.exportReady(user.getUsername());
+    }
+
+    public Optional<MediaInfo> info(String userUid) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+
+        var gridFSFile = bucket.find(and(eq(Const.METADATA_USER_UID, userUid), exists(Const.METADATA_SHA256)))
+                .sort(descending("uploadDate"))
+                .first();
+
+        if (gridFSFile == null || gridFSFile.getMetadata() == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new MediaInfo(
+                gridFSFile.getMetadata().getString(Const.UID),
+                CONTENT_TYPE,
+                gridFSFile.getMetadata().getString(Const.SHA256),
+                gridFSFile.getLength(),
+                gridFSFile.getUploadDate()));
+    }
+
+    public Optional<byte[]> read(String userUid, String uid, long offset, int length) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+        Objects.requireNonNull(uid, Required.UID);
+
+        var gridFSFile = bucket.find(and(eq(Const.METADATA_UID, uid), eq(Const.METADATA_USER_UID, userUid))).first();
+        if (gridFSFile == null) {
+            return Optional.empty();
+        }
+
+        try (GridFSDownloadStream downloadStream = bucket.openDownloadStream(gridFSFile.getObjectId())) {
+            downloadStream.skipNBytes(offset);
+            return Optional.of(downloadStream.readNBytes(length));
+        } catch (IOException e) {
+            LOG.error("Failed to read export {}", uid, e);
+        }
+
+        return Optional.empty();
+    }
+
+    public void delete(String userUid) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+
+        bucket.find(eq(Const.METADATA_USER_UID, userUid))
+                .forEach(file -> bucket.delete(file.getObjectId()));
+    }
+
+    public void purge() {
+        var expired = Date.from(Instant.now().minus(RETENTION));
+        bucket.find(lt("uploadDate", expired))
+                .forEach(file -> bucket.delete(file.getObjectId()));
+    }
+
+    public void html(String userUid, OutputStream output) throws IOException {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+        Objects.requireNonNull(output, Required.OUTPUT);
+
+        Map<String, String> categories = new TreeMap<>();
+        dataService.findAllCategories(userUid).forEach(category -> categories.put(category.getUid(), category.getName()));
+
+        try (var writer = new BookmarkWriter(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)));
+             MongoCursor<Item> cursor = items(userUid)) {
+            Item next = advance(cursor);
+            for (Map.Entry<String, String> category : categories.entrySet()) {
+                while (next != null && StringUtils.compare(next.getCategoryUid(), category.getKey()) < 0) {
+                    next = advance(cursor);
+                }
+
+                writer.openFolder(folder(category.getValue()));
+                while (next != null && category.getKey().equals(next.getCategoryUid())) {
+                    writer.bookmark(bookmark(next));
+                    next = advance(cursor);
+                }
+                writer.closeFolder();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void jsonl(String userUid, OutputStream output, Set<String> media, Set<String> archives) throws IOException {
+        Map<String, String> categories = new HashMap<>();
+        dataService.findAllCategories(userUid).forEach(category -> categories.put(category.getUid(), category.getName()));
+
+        var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try (MongoCursor<Item> cursor = datastore.query(Item.class)
+                .find(eq(Const.USER_UID, userUid))
+                .sort(ascending("_id"))
+                .batchSize(BATCH_SIZE)
+                .cursor()) {
+            while (cursor.hasNext()) {
+                Item item = cursor.next();
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put(Const.UID, item.getUid());
+                line.put("category", categories.get(item.getCategoryUid()));
+                line.put("url", item.getUrl());
+                line.put("title", item.getTitle());
+                line.put("description", item.getDescription());
+                line.put("domain", item.getDomain());
+                line.put("image", item.getImage());
+                line.put(Const.TIMESTAMP, item.getTimestamp() != null ? item.getTimestamp().toString() : null);
+                line.put("archived", item.isArchived());
+                line.put(Const.MEDIA_UID, item.getMediaUid());
+                line.put(Const.ARCHIVE_UID, item.getArchiveUid());
+
+                writer.write(JsonUtils.toJson(line));
+                writer.write('\n');
+
+                if (StringUtils.isNotBlank(item.getMediaUid())) {
+                    media.add(item.getMediaUid());
+                }
+                if (StringUtils.isNotBlank(item.getArchiveUid())) {
+                    archives.add(item.getArchiveUid());
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private void copy(String mediaUid, String name, ZipOutputStream zip, boolean base64) throws IOException {
+        Optional<InputStream> input = mediaService.open(mediaUid);
+        if (input.isEmpty()) {
+            return;
+        }
+
+        try (InputStream stream = base64 ? Base64.getMimeDecoder().wrap(input.get()) : input.get()) {
+            zip.putNextEntry(new ZipEntry(name));
+            stream.transferTo(zip);
+            zip.closeEntry();
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String key(String userUid) {
+        return JobType.EXPORT.name() + ":" + userUid;
+    }
+
+    @SuppressWarnings("unchecked")
+    private MongoCursor<Item> items(String userUid) {
+        return datastore.query(Item.class)
+                .find(eq(Const.USER_UID, userUid))
+                .projection(include(Const.CATEGORY_UID, Const.TIMESTAMP, "url", "title", "image"))
+                .sort(orderBy(ascending(Const.CATEGORY_UID), descending(Const.TIMESTAMP), descending(Const.UID)))
+                .batchSize(BATCH_SIZE)
+                .cursor();
+    }
+
+    private static Item advance(MongoCursor<Item> cursor) {
+        return cursor.hasNext() ? cursor.next() : null;
+    }
+
+    private static Leaf folder(String name) {
+        var leaf = new Leaf();
+        leaf.setFolder(true);
+        leaf.setTitle(name);
+
+        return leaf;
+    }
+
+    private static Leaf bookmark(Item item) {
+        var leaf = new Leaf();
+        leaf.setUrl(item.getUrl());
+        leaf.setTitle(item.getTitle());
+        leaf.setDataCover(item.getImage());
+        if (item.getTimestamp() != null) {
+            leaf.setAddDate(item.getTimestamp().toInstant(ZoneOffset.UTC));
+        }
+
+        return leaf;
+    }
+}
@@ -0,0 +1,195 @@
+package services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import constants.Invalid;
+import constants.Required;
+import io.mangoo.routing.bindings.Request;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import utils.Utils;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+@Singleton
+public class HashingService {
+    private static final Logger LOG = LogManager.getLogger(HashingService.class);
+    private static final String ACCOUNT = "account_";
+    private static final String IP = "ip_";
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAccumulator slowest = new LongAccumulator(Math::max, 0);
+    private final Cache<String, Deque<Long>> failures;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> proxies;
+    private final long window;
+    private final int accountLimit;
+    private final int ipLimit;
+
+    @Inject
+    public HashingService(@Named("application.hashing.queue") int queue,
+                          @Named("application.login.account") int accountLimit,
+                          @Named("application.login.ip") int ipLimit,
+                          @Named("application.login.window") int window,
+                          @Named("application.login.proxies") String proxies) {
+        Utils.checkCondition(queue > 0, Invalid.QUEUE);
+        Utils.checkCondition(accountLimit > 0, Invalid.ATTEMPTS);
+        Utils.checkCondition(ipLimit > 0, Invalid.ATTEMPTS);
+        Utils.checkCondition(window > 0, Invalid.WINDOW);
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        this.accountLimit = accountLimit;
+        this.ipLimit = ipLimit;
+        this.window = TimeUnit.MINUTES.toNanos(window);
+        this.proxies = Set.copyOf(List.of(StringUtils.split(StringUtils.deleteWhitespace(StringUtils.defaultString(proxies)), ",")));
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofMinutes(window))
+                .build();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue),
+                Thread.ofPlatform().name("hashing-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public Optional<Boolean> verify(String account, String ip, BooleanSupplier check) {
+        Objects.requireNonNull(account, Required.USERNAME);
+        Objects.requireNonNull(check, Required.TASK);
+
+        String accountKey = ACCOUNT + StringUtils.lowerCase(StringUtils.trim(account));
+        String ipKey = StringUtils.isNotBlank(ip) ? IP + ip : null;
+        if (exceeds(accountKey, accountLimit) || (ipKey != null && exceeds(ipKey, ipLimit))) {
+            throttled.increment();
+            return Optional.empty();
+        }
+
+        Optional<Boolean> valid = compute(check::getAsBoolean);
+        valid.ifPresent(result -> {
+            if (result) {
+                failures.invalidate(accountKey);
+            } else {
+                record(accountKey, accountLimit);
+                if (ipKey != null) {
+                    record(ipKey, ipLimit);
+                }
+            }
+        });
+
+        return valid;
+    }
+
+    public String clientIp(Request request) {
+        return Utils.getClientIp(request, proxies);
+    }
+
+    public <T> Optional<T> compute(Supplier<T> task) {
+        Objects.requireNonNull(task, Required.TASK);
+
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task::get);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.ofNullable(future.get());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            LOG.error("Hashing task failed", e.getCause());
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            completed.increment();
+            nanos.add(elapsed);
+            slowest.accumulate(elapsed);
+        }
+    }
+
+    public Map<String, Long> metrics() {
+        long count = completed.sum();
+        return Map.of(
+                "queued", (long) executor.getQueue().size(),
+                "running", (long) executor.getActiveCount(),
+                "completed", count,
+                "rejected", rejected.sum(),
+                "throttled", throttled.sum(),
+                "averageMillis", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(nanos.sum() / count),
+                "maxMillis", TimeUnit.NANOSECONDS.toMillis(slowest.getThenReset()));
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean exceeds(String key, int limit) {
+        var attempts = failures.getIfPresent(key);
+        if (attempts == null) {
+            return false;
+        }
+
+        synchronized (attempts) {
+            expire(attempts);
+            return attempts.size() >= limit;
+        }
+    }
+
+    private void record(String key, int limit) {
+        var attempts = failures.get(key, k -> new ArrayDeque<>());
+        synchronized (attempts) {
+            expire(attempts);
+            attempts.addLast(System.nanoTime());
+            if (attempts.size() > limit) {
+                attempts.removeFirst();
+            }
+        }
+    }
+
+    private void expire(Deque<Long> attempts) {
+        long now = System.nanoTime();
+        while (!attempts.isEmpty() && now - attempts.peekFirst() > window) {
+            attempts.removeFirst();
+        }
+    }
+}
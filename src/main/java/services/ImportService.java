@@ -0,0 +1,230 @@
+package services;
+
+import com.mongodb.client.model.InsertManyOptions;
+import constants.Const;
+import constants.Invalid;
+import constants.Required;
+import io.mangoo.persistence.interfaces.Datastore;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import models.Category;
+import models.Item;
+import models.enums.Role;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import utils.Utils;
+import utils.io.IOUtils;
+import utils.io.Leaf;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Projections.include;
+
+@Singleton
+public class ImportService {
+    private static final Logger LOG = LogManager.getLogger(ImportService.class);
+    private static final Pattern INVALID_NAME_CHARACTERS = Pattern.compile("[^-_a-z0-9äöüß]", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    private static final String DEFAULT_CATEGORY = "Imported";
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_NAME_LENGTH = 32;
+    private final Datastore datastore;
+    private final DataService dataService;
+
+    @Inject
+    public ImportService(Datastore datastore, DataService dataService) {
+        this.datastore = Objects.requireNonNull(datastore, Required.DATASTORE);
+        this.dataService = Objects.requireNonNull(dataService, Required.DATA_SERVICE);
+    }
+
+    public long importItems(String userUid, InputStream input) {
+        Objects.requireNonNull(input, Required.INPUT);
+
+        var batch = begin(userUid);
+        try {
+            IOUtils.importItems(input, batch::add);
+            return batch.finish();
+        } catch (RuntimeException e) {
+            batch.rollback();
+            throw e;
+        }
+    }
+
+    long importItems(String userUid, List<Leaf> leafs) {
+        Objects.requireNonNull(leafs, Required.ITEMS);
+
+        var batch = begin(userUid);
+        try {
+            add(batch, null, leafs);
+            return batch.finish();
+        } catch (RuntimeException e) {
+            batch.rollback();
+            throw e;
+        }
+    }
+
+    private static void add(Batch batch, String folder, List<Leaf> leafs) {
+        for (Leaf leaf : leafs) {
+            if (leaf.isFolder()) {
+                add(batch, leaf.getTitle(), leaf.getChildren());
+            } else {
+                batch.add(folder, leaf);
+            }
+        }
+    }
+
+    public Batch begin(String userUid) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+
+        Map<String, Category> categories = new HashMap<>();
+        dataService.findAllCategories(userUid)
+                .forEach(category -> categories.putIfAbsent(category.getName().toLowerCase(Locale.ENGLISH), category));
+
+        return new Batch(userUid, categories);
+    }
+
+    static String sanitize(String name) {
+        String sanitized = INVALID_NAME_CHARACTERS
+                .matcher(StringUtils.normalizeSpace(StringUtils.defaultString(name)).replace(' ', '-'))
+                .replaceAll(StringUtils.EMPTY);
+
+        return StringUtils.isNotBlank(sanitized) ? StringUtils.left(sanitized, MAX_NAME_LENGTH) : DEFAULT_CATEGORY;
+    }
+
+    public final class Batch {
+        private final String userUid;
+        private final String importUid = Utils.randomString();
+        private final Map<String, Category> categories;
+        private final List<Category> created = new ArrayList<>();
+        private final List<Item> items = new ArrayList<>();
+        private final List<String> insertedCategories = new ArrayList<>();
+        private final Map<String, Long> insertedCounts = new HashMap<>();
+        private long imported;
+
+        private Batch(String userUid, Map<String, Category> categories) {
+            this.userUid = userUid;
+            this.categories = categories;
+        }
+
+        public void add(String folder, Leaf bookmark) {
+            Objects.requireNonNull(bookmark, Required.ITEM);
+            if (!Utils.isValidURL(bookmark.getUrl())) {
+                return;
+            }
+
+            var item = Item.create()
+                    .withUserUid(userUid)
+                    .withCategoryUid(resolve(folder).getUid())
+                    .withImportUid(importUid)
+                    .withUrl(bookmark.getUrl())
+                    .withTitle(StringUtils.defaultIfBlank(bookmark.getTitle(), bookmark.getUrl()))
+                    .withImage(StringUtils.defaultIfBlank(bookmark.getDataCover(), Const.PLACEHOLDER_IMAGE))
+                    .withDomain(Utils.getDomain(bookmark.getUrl()));
+
+            if (bookmark.getAddDate() != null) {
+                item.setTimestamp(bookmark.getAddDate().atZone(ZoneId.systemDefault()).toLocalDateTime());
+            } else {
+                item.setTimestamp(LocalDateTime.now());
+            }
+
+            items.add(item);
+            if (items.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        public long finish() {
+            flush();
+
+            return imported;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void flush() {
+            if (!created.isEmpty()) {
+                created.forEach(category -> insertedCategories.add(category.getUid()));
+                datastore.query(Category.class).insertMany(List.copyOf(created));
+                created.clear();
+            }
+
+            if (items.isEmpty()) {
+                return;
+            }
+
+            //An unordered insert may partly succeed before it throws, which the rollback covers through the import uid
+            datastore.query(Item.class).insertMany(List.copyOf(items), new InsertManyOptions().ordered(false));
+
+            Map<String, Long> counts = new HashMap<>();
+            List<String> itemUids = new ArrayList<>(items.size());
+            for (Item item : items) {
+                counts.merge(item.getCategoryUid(), 1L, Long::sum);
+                itemUids.add(item.getUid());
+            }
+
+            counts.forEach((categoryUid, count) -> dataService.updateItemCount(userUid, categoryUid, count));
+            counts.forEach((categoryUid, count) -> insertedCounts.merge(categoryUid, count, Long::sum));
+            dataService.recordChanges(userUid, itemUids);
+
+            imported += items.size();
+            items.clear();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void rollback() {
+            items.clear();
+            created.clear();
+
+            //Items are removed by their import uid in chunks, so rolling back keeps memory constant
+            var filter = and(eq(Const.USER_UID, userUid), eq(Const.IMPORT_UID, importUid));
+            long removed = 0;
+            List<Item> chunk = new ArrayList<>(BATCH_SIZE);
+            do {
+                chunk.clear();
+                datastore.query(Item.class)
+                        .find(filter)
+                        .projection(include(Const.UID))
+                        .limit(BATCH_SIZE)
+                        .into(chunk);
+
+                if (!chunk.isEmpty()) {
+                    List<String> itemUids = chunk.stream().map(Item::getUid).toList();
+                    dataService.recordChanges(userUid, itemUids);
+                    removed += datastore.query(Item.class).deleteMany(and(filter, in(Const.UID, itemUids))).getDeletedCount();
+                }
+            } while (chunk.size() == BATCH_SIZE);
+
+            //Only counts which were applied are taken back, items that landed without one were never counted
+            insertedCounts.forEach((categoryUid, count) -> dataService.updateItemCount(userUid, categoryUid, -count));
+
+            if (!insertedCategories.isEmpty()) {
+                datastore.query(Category.class).deleteMany(and(eq(Const.USER_UID, userUid), in(Const.UID, insertedCategories)));
+            }
+
+            LOG.warn("Rolled back import of {} items and {} categories", removed, insertedCategories.size());
+            imported = 0;
+        }
+
+        private Category resolve(String folder) {
+            String name = sanitize(folder);
+
+            return categories.computeIfAbsent(name.toLowerCase(Locale.ENGLISH), key -> {
+                var category = new Category(name, userUid, Role.CUSTOM);
+                created.add(category);
+
+                return category;
+            });
+        }
+    }
+}
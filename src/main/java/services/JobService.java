@@ -0,0 +1,219 @@
+package services;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import constants.Const;
+import constants.Invalid;
+import constants.Required;
+import io.mangoo.persistence.interfaces.Datastore;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import models.Job;
+import models.enums.JobStatus;
+import models.enums.JobType;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bson.conversions.Bson;
+import utils.Utils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.exists;
+import static com.mongodb.client.model.Filters.lt;
+import static com.mongodb.client.model.Filters.lte;
+import static com.mongodb.client.model.Filters.or;
+import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.inc;
+import static com.mongodb.client.model.Updates.set;
+import static com.mongodb.client.model.Updates.unset;
+
+@Singleton
+public class JobService {
+    private static final Logger LOG = LogManager.getLogger(JobService.class);
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int MAX_ERROR_LENGTH = 512;
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final Duration BACKOFF = Duration.ofSeconds(30);
+    private final Semaphore signal = new Semaphore(0);
+    private final Datastore datastore;
+
+    @Inject
+    public JobService(Datastore datastore) {
+        this.datastore = Objects.requireNonNull(datastore, Required.DATASTORE);
+    }
+
+    public void indexify() {
+        datastore.query(Job.class)
+                .createIndex(Indexes.compoundIndex(
+                        Indexes.ascending(Const.STATUS),
+                        Indexes.ascending(Const.NOT_BEFORE)));
+
+        datastore.query(Job.class)
+                .createIndex(
+                        Indexes.ascending(Const.FINISHED),
+                        new IndexOptions().expireAfter(7L, TimeUnit.DAYS));
+
+        datastore.query(Job.class)
+                .createIndex(
+                        Indexes.ascending(Const.KEY),
+                        new IndexOptions().unique(true).partialFilterExpression(exists(Const.KEY)));
+    }
+
+    public String enqueue(JobType type, String userUid, Map<String, String> data) {
+        Objects.requireNonNull(type, Required.TYPE);
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+        Objects.requireNonNull(data, Required.DATA);
+
+        var job = new Job(type, userUid, data);
+        datastore.save(job);
+        signal.release();
+
+        return job.getUid();
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<String> enqueue(JobType type, String userUid, Map<String, String> data, String key) {
+        Objects.requireNonNull(type, Required.TYPE);
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+        Objects.requireNonNull(data, Required.DATA);
+        Objects.requireNonNull(key, Required.KEY);
+
+        var job = new Job(type, userUid, data);
+        job.setKey(key);
+        try {
+            datastore.query(Job.class).insertOne(job);
+        } catch (MongoWriteException e) {
+            if (e.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+        signal.release();
+
+        return Optional.of(job.getUid());
+    }
+
+    public Optional<Job> findByKey(String key) {
+        Objects.requireNonNull(key, Required.KEY);
+
+        return Optional.ofNullable((Job) datastore.query(Job.class).find(eq(Const.KEY, key)).first());
+    }
+
+    public boolean checkpoint(Job job, String checkpoint, long processed, long total) {
+        Objects.requireNonNull(job, Required.JOB);
+
+        var updateResult = datastore.query(Job.class).updateOne(
+                leased(job),
+                combine(
+                        set(Const.CHECKPOINT, checkpoint),
+                        set(Const.PROCESSED, processed),
+                        set(Const.TOTAL, total),
+                        set(Const.LOCKED_UNTIL, LocalDateTime.now().plus(LEASE))));
+
+        return updateResult.getMatchedCount() == 1;
+    }
+
+    public boolean renew(Job job) {
+        Objects.requireNonNull(job, Required.JOB);
+
+        return datastore.query(Job.class)
+                .updateOne(leased(job), set(Const.LOCKED_UNTIL, LocalDateTime.now().plus(LEASE)))
+                .getMatchedCount() == 1;
+    }
+
+    public Optional<Job> claim() {
+        var now = LocalDateTime.now();
+
+        var job = (Job) datastore.query(Job.class).findOneAndUpdate(
+                or(
+                        and(
+                                eq(Const.STATUS, JobStatus.QUEUED.name()),
+                                lte(Const.NOT_BEFORE, now)),
+                        and(
+                                eq(Const.STATUS, JobStatus.RUNNING.name()),
+                                lt(Const.LOCKED_UNTIL, now))),
+                combine(
+                        set(Const.STATUS, JobStatus.RUNNING.name()),
+                        set(Const.LOCKED_UNTIL, now.plus(LEASE)),
+                        set(Const.OWNER, Utils.randomString()),
+                        inc(Const.ATTEMPTS, 1)),
+                new FindOneAndUpdateOptions()
+                        .sort(Sorts.ascending(Const.NOT_BEFORE))
+                        .returnDocument(ReturnDocument.AFTER));
+
+        return Optional.ofNullable(job);
+    }
+
+    public boolean isExhausted(Job job) {
+        Objects.requireNonNull(job, Required.JOB);
+
+        return job.getAttempts() > MAX_ATTEMPTS;
+    }
+
+    public void complete(Job job) {
+        Objects.requireNonNull(job, Required.JOB);
+
+        if (datastore.query(Job.class).deleteOne(leased(job)).getDeletedCount() == 0) {
+            LOG.warn("Job {} of type {} was completed without holding its lease", job.getUid(), job.getType());
+        }
+    }
+
+    public void fail(Job job, String error) {
+        Objects.requireNonNull(job, Required.JOB);
+
+        String message = StringUtils.abbreviate(StringUtils.defaultString(error), MAX_ERROR_LENGTH);
+        if (job.getAttempts() >= MAX_ATTEMPTS) {
+            LOG.error("Giving up on job {} of type {} after {} attempts: {}", job.getUid(), job.getType(), job.getAttempts(), message);
+            datastore.query(Job.class).updateOne(
+                    leased(job),
+                    combine(
+                            set(Const.STATUS, JobStatus.FAILED.name()),
+                            set(Const.ERROR, message),
+                            set(Const.FINISHED, LocalDateTime.now()),
+                            unset(Const.KEY),
+                            unset(Const.OWNER),
+                            unset(Const.LOCKED_UNTIL)));
+        } else {
+            var backoff = BACKOFF.multipliedBy(1L << Math.max(0, job.getAttempts() - 1));
+            datastore.query(Job.class).updateOne(
+                    leased(job),
+                    combine(
+                            set(Const.STATUS, JobStatus.QUEUED.name()),
+                            set(Const.ERROR, message),
+                            set(Const.NOT_BEFORE, LocalDateTime.now().plus(backoff)),
+                            unset(Const.OWNER),
+                            unset(Const.LOCKED_UNTIL)));
+        }
+    }
+
+    private static Bson leased(Job job) {
+        return and(
+                eq(Const.UID, job.getUid()),
+                eq(Const.STATUS, JobStatus.RUNNING.name()),
+                eq(Const.OWNER, job.getOwner()));
+    }
+
+    public void await(Duration duration) throws InterruptedException {
+        Objects.requireNonNull(duration, Required.DURATION);
+
+        signal.tryAcquire(duration.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void wakeUp(int workers) {
+        signal.release(workers);
+    }
+}
@@ -0,0 +1,147 @@
+package services;
+
+import constants.Const;
+import constants.Invalid;
+import constants.Required;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import models.Job;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import utils.Utils;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@Singleton
+public class JobWorker {
+    private static final Logger LOG = LogManager.getLogger(JobWorker.class);
+    private static final Duration IDLE = Duration.ofSeconds(10);
+    private static final Duration SHUTDOWN = Duration.ofSeconds(30);
+    private static final Duration RENEWAL = Duration.ofMinutes(1);
+    private final JobService jobService;
+    private final DataService dataService;
+    private final ResyncService resyncService;
+    private final ExportService exportService;
+    private final int workers;
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    @Inject
+    public JobWorker(JobService jobService,
+                     DataService dataService,
+                     ResyncService resyncService,
+                     ExportService exportService,
+                     @Named("application.jobs.workers") int workers) {
+        Utils.checkCondition(workers > 0, Invalid.WORKERS);
+
+        this.jobService = Objects.requireNonNull(jobService, Required.JOB_SERVICE);
+        this.dataService = Objects.requireNonNull(dataService, Required.DATA_SERVICE);
+        this.resyncService = Objects.requireNonNull(resyncService, Required.RESYNC_SERVICE);
+        this.exportService = Objects.requireNonNull(exportService, Required.EXPORT_SERVICE);
+        this.workers = workers;
+    }
+
+    public synchronized void start() {
+        if (executor == null) {
+            running = true;
+            executor = Executors.newFixedThreadPool(workers, Thread.ofVirtual().name("job-worker-", 0).factory());
+            for (int i = 0; i < workers; i++) {
+                executor.execute(this::work);
+            }
+            LOG.info("Started {} job workers", workers);
+        }
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            running = false;
+            jobService.wakeUp(workers);
+            executor.shutdown();
+
+            try {
+                if (!executor.awaitTermination(SHUTDOWN.toSeconds(), TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+
+            executor = null;
+            LOG.info("Stopped job workers");
+        }
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                var job = jobService.claim();
+                if (job.isPresent()) {
+                    execute(job.get());
+                } else {
+                    jobService.await(IDLE);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOG.error("Failed to claim job", e);
+                sleep();
+            }
+        }
+    }
+
+    private void execute(Job job) {
+        if (jobService.isExhausted(job)) {
+            jobService.fail(job, "Exceeded maximum number of attempts");
+            return;
+        }
+
+        var heartbeat = Thread.ofVirtual().name("job-heartbeat-" + job.getUid()).start(() -> heartbeat(job));
+        try {
+            switch (job.getType()) {
+                case ENRICH -> dataService.enrich(job.getUserUid(), job.getData().get(Const.ITEM_UID));
+                case EXPORT -> exportService.run(job);
+                case RESYNC -> resyncService.run(job);
+            }
+            jobService.complete(job);
+        } catch (InterruptedException e) {
+            LOG.info("Interrupted job {} of type {}, it resumes once its lease expires", job.getUid(), job.getType());
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOG.error("Failed to execute job {} of type {}", job.getUid(), job.getType(), e);
+            jobService.fail(job, e.getMessage());
+        } finally {
+            heartbeat.interrupt();
+        }
+    }
+
+    private void heartbeat(Job job) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(RENEWAL);
+                if (!jobService.renew(job)) {
+                    LOG.warn("Lost lease on job {} of type {}", job.getUid(), job.getType());
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                LOG.error("Failed to renew lease on job {} of type {}", job.getUid(), job.getType(), e);
+            }
+        }
+    }
+
+    private void sleep() {
+        try {
+            jobService.await(IDLE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoException;
 import com.mongodb.client.gridfs.GridFSBucket;
 import com.mongodb.client.gridfs.GridFSBuckets;
 import com.mongodb.client.gridfs.GridFSDownloadStream;
@@ -7,42 +11,107 @@ import com.mongodb.client.gridfs.GridFSUploadStream;
 import com.mongodb.client.gridfs.model.GridFSUploadOptions;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
+import constants.Collections;
 import constants.Const;
+import constants.Invalid;
 import constants.Required;
-import de.svenkubiak.http.Http;
-import io.mangoo.cache.Cache;
 import io.mangoo.persistence.interfaces.Datastore;
+import io.undertow.util.StatusCodes;
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 import jakarta.inject.Singleton;
+import models.enums.Thumbnail;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
+import utils.ByteRange;
+import utils.MediaInfo;
 import utils.Utils;
+import utils.io.DiskCache;
+import utils.io.Thumbnails;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.Objects;
-import java.util.Optional;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.exists;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.lte;
+import static com.mongodb.client.model.Filters.not;
+import static com.mongodb.client.model.Filters.or;
+import static com.mongodb.client.model.Projections.include;
+import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.inc;
+import static com.mongodb.client.model.Updates.set;
 
 @Singleton
 public class MediaService {
     private static final Logger LOG = LogManager.getLogger(MediaService.class);
     private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
     private static final String BUCKET_NAME = "filedpapers";
+    private static final String METADATA = "metadata";
     private static final int MAX_SIZE = 16 * 1024 * 1024; //16MB max size for GridFS
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(30);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SNIFF_SIZE = 512;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
     private final Datastore datastore;
-    private final Cache cache;
+    private final Cache<String, byte[]> cache;
+    private final Cache<String, MediaInfo> infos = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+    private final Cache<String, Boolean> unscalable = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+    private final Map<String, CompletableFuture<Optional<byte[]>>> inflight = new ConcurrentHashMap<>();
+    private final DiskCache diskCache;
     private final GridFSBucket bucket;
+    private final long maxObjectSize;
+    private final long fetchLimit;
 
     @Inject
-    public MediaService(Datastore datastore, Cache cache) {
+    public MediaService(Datastore datastore,
+                        @Named("application.media.cache.budget") long budget,
+                        @Named("application.media.cache.object") long maxObjectSize,
+                        @Named("application.media.disk.path") String diskPath,
+                        @Named("application.media.disk.budget") long diskBudget,
+                        @Named("application.media.fetch.limit") long fetchLimit) {
+        Objects.requireNonNull(diskPath, Required.DIRECTORY);
+        Utils.checkCondition(budget > 0, Invalid.BUDGET);
+        Utils.checkCondition(diskBudget > 0, Invalid.BUDGET);
+        Utils.checkCondition(maxObjectSize > 0, Invalid.MAX_OBJECT_SIZE);
+        Utils.checkCondition(fetchLimit > 0 && fetchLimit <= MAX_SIZE / (1024 * 1024), Invalid.FETCH_LIMIT);
+
         this.datastore = Objects.requireNonNull(datastore, Required.DATASTORE);
-        this.cache = Objects.requireNonNull(cache, Required.CACHE);
         this.bucket = GridFSBuckets.create(datastore.getMongoDatabase(), BUCKET_NAME);
+        this.maxObjectSize = maxObjectSize * 1024;
+        this.fetchLimit = fetchLimit * 1024 * 1024;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(budget * 1024 * 1024)
+                .weigher((String key, byte[] value) -> value.length)
+                .recordStats()
+                .build();
+        this.diskCache = new DiskCache(Path.of(diskPath), diskBudget * 1024 * 1024);
     }
 
     public void indexify() {
@@ -52,34 +121,152 @@ public class MediaService {
                 Indexes.ascending(Const.METADATA_UID),
                 Indexes.ascending(Const.METADATA_USER_UID)
         ), new IndexOptions().unique(true));
+        datastore.query(Const.FILEDPAPERS_FILES).createIndex(Indexes.ascending(Const.METADATA_SHA256), new IndexOptions()
+                .unique(true)
+                .partialFilterExpression(exists(Const.METADATA_REFS)));
     }
 
     public String store(byte[] data, String userUid) {
         Objects.requireNonNull(data, Required.DATA);
+
+        return store(data, userUid, Utils.contentType(data));
+    }
+
+    public String store(byte[] data, String userUid, String contentType) {
+        Objects.requireNonNull(data, Required.DATA);
         Objects.requireNonNull(userUid, Required.USER_UID);
+        Objects.requireNonNull(contentType, Required.CONTENT_TYPE);
         Utils.checkCondition(data.length <= MAX_SIZE, Required.MAX_SIZE);
 
-        var uid = Utils.randomString();
+        return reference(Utils.sha256(data))
+                .orElseGet(() -> upload(new ByteArrayInputStream(data), userUid, contentType, MAX_SIZE));
+    }
 
+    private String upload(InputStream input, String userUid, String contentType, long limit) {
+        var uid = Utils.randomString();
         GridFSUploadOptions options = new GridFSUploadOptions()
-                .metadata(new Document(Const.UID, uid).append(Const.USER_UID, userUid));
-        try (GridFSUploadStream uploadStream = bucket.openUploadStream(uid, options)) {
-            uploadStream.write(data);
-            uploadStream.flush();
-        } catch (Exception e) {
-            uid = null;
+                .metadata(new Document(Const.UID, uid)
+                        .append(Const.USER_UID, userUid)
+                        .append(Const.CONTENT_TYPE, contentType));
+
+        GridFSUploadStream uploadStream = bucket.openUploadStream(uid, options);
+        ObjectId id = uploadStream.getObjectId();
+        MessageDigest digest;
+        long length = 0;
+        boolean complete = false;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+            var buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                length += read;
+                if (length > limit) {
+                    LOG.warn("Aborted storing media as it exceeds the limit of {} bytes", limit);
+                    return null;
+                }
+                digest.update(buffer, 0, read);
+                uploadStream.write(buffer, 0, read);
+            }
+            complete = true;
+        } catch (IOException | NoSuchAlgorithmException | MongoException e) {
             LOG.error("Failed to store data in GridFS", e);
+            return null;
+        } finally {
+            if (complete) {
+                uploadStream.close();
+            } else {
+                uploadStream.abort();
+            }
+        }
+
+        String hash = HexFormat.of().formatHex(digest.digest());
+        Optional<String> existing = reference(hash);
+        if (existing.isPresent()) {
+            bucket.delete(id);
+            return existing.get();
+        }
+
+        try {
+            datastore.query(Const.FILEDPAPERS_FILES).updateOne(
+                    eq("_id", id),
+                    combine(
+                            set(Const.METADATA_SHA256, hash),
+                            set(Const.METADATA_LENGTH, length),
+                            set(Const.METADATA_REFS, 1L)));
+        } catch (MongoException e) {
+            bucket.delete(id);
+            if (ErrorCategory.fromErrorCode(e.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                return reference(hash).orElse(null);
+            }
+
+            LOG.error("Failed to store data in GridFS", e);
+            return null;
         }
 
         return uid;
     }
 
+    private Optional<String> reference(String hash) {
+        var document = (Document) datastore.query(Const.FILEDPAPERS_FILES).findOneAndUpdate(
+                and(eq(Const.METADATA_SHA256, hash), exists(Const.METADATA_REFS)),
+                inc(Const.METADATA_REFS, 1L));
+
+        return Optional.ofNullable(document)
+                .map(file -> file.get(METADATA, Document.class))
+                .map(metadata -> metadata.getString(Const.UID));
+    }
+
+    public Optional<MediaInfo> info(String uid) {
+        Objects.requireNonNull(uid, Required.MEDIA_UID);
+
+        MediaInfo cached = infos.getIfPresent(uid);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        var gridFSFile = bucket
+                .find(eq(Const.METADATA_UID, uid))
+                .first();
+
+        if (gridFSFile == null || gridFSFile.getMetadata() == null) {
+            return Optional.empty();
+        }
+
+        String contentType = gridFSFile.getMetadata().getString(Const.CONTENT_TYPE);
+        String hash = gridFSFile.getMetadata().getString(Const.SHA256);
+        if (StringUtils.isAnyBlank(contentType, hash)) {
+            Optional<byte[]> data = retrieve(uid);
+            if (data.isEmpty()) {
+                return Optional.empty();
+            }
+
+            contentType = Utils.contentType(data.get());
+            hash = Utils.sha256(data.get());
+            datastore.query(Const.FILEDPAPERS_FILES).updateOne(
+                    eq(Const.METADATA_UID, uid),
+                    combine(set(Const.METADATA_CONTENT_TYPE, contentType), set(Const.METADATA_SHA256, hash)));
+        }
+
+        var info = new MediaInfo(uid, contentType, hash, gridFSFile.getLength(), gridFSFile.getUploadDate());
+        infos.put(uid, info);
+
+        return Optional.of(info);
+    }
+
     public Optional<byte[]> retrieve(String uid) {
         Objects.requireNonNull(uid, Required.MEDIA_UID);
 
-        Object object = cache.get(Const.IMAGE_CACHE_PREFIX + uid);
-        if (object != null) {
-            return Optional.of((byte[]) object);
+        byte[] cached = cache.getIfPresent(uid);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<byte[]> onDisk = diskCache.get(uid);
+        if (onDisk.isPresent()) {
+            if (onDisk.get().length <= maxObjectSize) {
+                cache.put(uid, onDisk.get());
+            }
+            return onDisk;
         }
 
         byte[] data = null;
@@ -102,7 +289,10 @@ public class MediaService {
                     throw new IOException("Could not completely read file from GridFS. Expected " + fileLength + " bytes, but got " + offset);
                 }
 
-                cache.put(Const.IMAGE_CACHE_PREFIX + uid, data);
+                diskCache.put(uid, data);
+                if (fileLength <= maxObjectSize) {
+                    cache.put(uid, data);
+                }
             } catch (IOException e) {
                 LOG.error("Failed to retrieve GridFS file", e);
             }
@@ -111,24 +301,199 @@ public class MediaService {
         return Optional.ofNullable(data);
     }
 
-    public void delete(String uid, String userUid) {
+    public Optional<byte[]> retrieve(String uid, ByteRange range) {
         Objects.requireNonNull(uid, Required.MEDIA_UID);
-        Objects.requireNonNull(uid, Required.USER_UID);
+        Objects.requireNonNull(range, Required.RANGE);
 
-        var gridFSFile = bucket
-                .find(and(eq(Const.METADATA_UID, uid), eq(Const.METADATA_USER_UID, userUid)))
-                .first();
+        byte[] cached = cache.getIfPresent(uid);
+        if (cached != null) {
+            return Optional.of(range.slice(cached));
+        }
 
-        if (gridFSFile != null) {
-            bucket.delete(gridFSFile.getObjectId());
+        return diskCache.get(uid, range.start(), Math.toIntExact(range.length()))
+                .or(() -> retrieve(uid).map(range::slice));
+    }
+
+    public Optional<byte[]> thumbnail(String uid, Thumbnail thumbnail) {
+        Objects.requireNonNull(uid, Required.MEDIA_UID);
+        Objects.requireNonNull(thumbnail, Required.THUMBNAIL);
+
+        String key = key(uid, thumbnail);
+        if (unscalable.getIfPresent(key) != null) {
+            return retrieve(uid);
+        }
+
+        byte[] cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        var future = new CompletableFuture<Optional<byte[]>>();
+        var existing = inflight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing.join().or(() -> retrieve(uid));
+        }
+
+        try {
+            Optional<byte[]> scaled = diskCache.get(key)
+                    .or(() -> scale(uid, key, thumbnail));
+            scaled.ifPresent(data -> cache.put(key, data));
+            future.complete(scaled);
+
+            return scaled.or(() -> retrieve(uid));
+        } catch (RuntimeException e) {
+            future.complete(Optional.empty());
+            throw e;
+        } finally {
+            inflight.remove(key, future);
+        }
+    }
+
+    private Optional<byte[]> scale(String uid, String key, Thumbnail thumbnail) {
+        Optional<byte[]> data = retrieve(uid);
+        if (data.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Optional<byte[]> scaled = Thumbnails.scale(data.get(), thumbnail.getWidth());
+        if (scaled.isPresent()) {
+            diskCache.put(key, scaled.get());
+        } else {
+            unscalable.put(key, Boolean.TRUE);
+        }
+
+        return scaled;
+    }
+
+    private static String key(String uid, Thumbnail thumbnail) {
+        return uid + "-" + thumbnail.name().toLowerCase(Locale.ENGLISH);
+    }
+
+    public void delete(String uid) {
+        Objects.requireNonNull(uid, Required.MEDIA_UID);
+
+        datastore.query(Const.FILEDPAPERS_FILES).updateOne(
+                eq(Const.METADATA_UID, uid),
+                inc(Const.METADATA_REFS, -1L));
+
+        var document = (Document) datastore.query(Const.FILEDPAPERS_FILES).findOneAndDelete(
+                and(eq(Const.METADATA_UID, uid), lte(Const.METADATA_REFS, 0L)));
+
+        if (document != null) {
+            datastore.query(Const.FILEDPAPERS_CHUNKS).deleteMany(eq(Const.FILES_ID, document.getObjectId("_id")));
+            invalidate(uid);
         }
     }
 
     public void delete(ObjectId id) {
         Objects.requireNonNull(id, Required.OBJECT_ID);
+
+        var gridFSFile = bucket.find(eq("_id", id)).first();
+        if (gridFSFile != null && gridFSFile.getMetadata() != null) {
+            invalidate(gridFSFile.getMetadata().getString(Const.UID));
+        }
         bucket.delete(id);
     }
 
+    @SuppressWarnings("unchecked")
+    public long deduplicate() {
+        List<ObjectId> ids = new ArrayList<>();
+        datastore.query(Const.FILEDPAPERS_FILES)
+                .find(and(exists(Const.METADATA_UID), not(exists(Const.METADATA_REFS))))
+                .projection(include("_id"))
+                .forEach(document -> ids.add(((Document) document).getObjectId("_id")));
+
+        long merged = 0;
+        for (ObjectId id : ids) {
+            var gridFSFile = bucket.find(eq("_id", id)).first();
+            if (gridFSFile == null || gridFSFile.getMetadata() == null) {
+                continue;
+            }
+
+            String uid = gridFSFile.getMetadata().getString(Const.UID);
+            Optional<String> hash = info(uid).map(MediaInfo::hash);
+            if (hash.isEmpty()) {
+                continue;
+            }
+
+            try {
+                var keeper = (Document) datastore.query(Const.FILEDPAPERS_FILES)
+                        .find(and(eq(Const.METADATA_SHA256, hash.get()), exists(Const.METADATA_REFS)))
+                        .first();
+
+                if (keeper == null) {
+                    Bson referencing = or(eq(Const.MEDIA_UID, uid), eq(Const.ARCHIVE_UID, uid));
+                    long refs = datastore.query(Collections.ITEMS).countDocuments(referencing);
+                    datastore.query(Const.FILEDPAPERS_FILES).updateOne(eq("_id", id), set(Const.METADATA_REFS, refs));
+                } else {
+                    String keeperUid = keeper.get(METADATA, Document.class).getString(Const.UID);
+                    repoint(keeper.getObjectId("_id"), Const.MEDIA_UID, uid, keeperUid);
+                    repoint(keeper.getObjectId("_id"), Const.ARCHIVE_UID, uid, keeperUid);
+                    delete(id);
+                    merged++;
+                }
+            } catch (MongoException e) {
+                LOG.error("Failed to deduplicate media with uid {}", uid, e);
+            }
+        }
+
+        LOG.info("Merged {} duplicate media files", merged);
+
+        return merged;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void repoint(ObjectId keeper, String field, String from, String to) {
+        long moved = datastore.query(Collections.ITEMS)
+                .updateMany(eq(field, from), set(field, to))
+                .getModifiedCount();
+
+        if (moved > 0) {
+            datastore.query(Const.FILEDPAPERS_FILES).updateOne(eq("_id", keeper), inc(Const.METADATA_REFS, moved));
+        }
+    }
+
+    private void invalidate(String uid) {
+        cache.invalidate(uid);
+        infos.invalidate(uid);
+        diskCache.invalidate(uid);
+        for (Thumbnail thumbnail : Thumbnail.values()) {
+            cache.invalidate(key(uid, thumbnail));
+            unscalable.invalidate(key(uid, thumbnail));
+            diskCache.invalidate(key(uid, thumbnail));
+        }
+    }
+
+    public Map<String, Long> metrics() {
+        var stats = cache.stats();
+
+        Map<String, Long> metrics = new HashMap<>(diskCache.metrics());
+        metrics.put("hits", stats.hitCount());
+        metrics.put("misses", stats.missCount());
+        metrics.put("evictions", stats.evictionCount());
+        metrics.put("entries", cache.estimatedSize());
+        metrics.put("bytes", cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L));
+
+        return metrics;
+    }
+
+    public void close() {
+        diskCache.close();
+    }
+
+    public Optional<InputStream> open(String uid) {
+        Objects.requireNonNull(uid, Required.MEDIA_UID);
+
+        var gridFSFile = bucket
+                .find(eq(Const.METADATA_UID, uid))
+                .first();
+
+        return Optional.ofNullable(gridFSFile)
+                .map(file -> bucket.openDownloadStream(file.getObjectId()));
+    }
+
     public boolean exists(String uid) {
         Objects.requireNonNull(uid, Required.MEDIA_UID);
 
@@ -139,28 +504,68 @@ public class MediaService {
         return gridFSFile != null;
     }
 
+    public Set<String> findExisting(Collection<String> uids) {
+        Objects.requireNonNull(uids, Required.MEDIA_UIDS);
+
+        Set<String> existing = new HashSet<>();
+        if (!uids.isEmpty()) {
+            bucket.find(in(Const.METADATA_UID, uids))
+                    .forEach(gridFSFile -> {
+                        if (gridFSFile.getMetadata() != null) {
+                            existing.add(gridFSFile.getMetadata().getString(Const.UID));
+                        }
+                    });
+        }
+
+        return existing;
+    }
+
     public Optional<String> fetchAndStore(String url, String userUid) {
         Objects.requireNonNull(url, Required.URL);
         Objects.requireNonNull(userUid, Required.USER_UID);
 
-        String uid = null;
-        var result = Http.get(url)
-                .withHeader("User-Agent", USER_AGENT)
-                .binaryResponse()
-                .send();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .header("User-Agent", USER_AGENT)
+                    .timeout(FETCH_TIMEOUT)
+                    .GET()
+                    .build();
 
-        if (result.isValid()) {
-            uid = store(result.binaryBody(), userUid);
-        } else {
-            LOG.error("Failed to fetch and store image");
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() != StatusCodes.OK) {
+                    LOG.error("Failed to fetch image, received status {}", response.statusCode());
+                    return Optional.empty();
+                }
+
+                long contentLength = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+                if (contentLength > fetchLimit) {
+                    LOG.warn("Skipped image with a declared length of {} bytes", contentLength);
+                    return Optional.empty();
+                }
+
+                byte[] head = body.readNBytes(SNIFF_SIZE);
+                String contentType = Utils.contentType(head);
+                if (!contentType.startsWith("image/")) {
+                    LOG.warn("Skipped image as the response is not an image");
+                    return Optional.empty();
+                }
+
+                var input = new SequenceInputStream(new ByteArrayInputStream(head), body);
+                return Optional.ofNullable(upload(input, userUid, contentType, fetchLimit));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.error("Failed to fetch and store image", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
 
-        return Optional.ofNullable(uid);
+        return Optional.empty();
     }
 
-    public void clean(String mediaUid, String userUid) {
-        if (StringUtils.isNotBlank(mediaUid) && StringUtils.isNotBlank(userUid)) {
-            delete(mediaUid, userUid);
+    public void clean(String mediaUid) {
+        if (StringUtils.isNotBlank(mediaUid)) {
+            delete(mediaUid);
         }
     }
 }
@@ -85,6 +85,29 @@ public class NotificationService {
         }
     }
 
+    public void exportReady(String username) {
+        Objects.requireNonNull(username, Required.USERNAME);
+
+        var user = dataService.findUser(username);
+        if (user != null) {
+            try {
+                messages.reload(Locale.of(user.getLanguage()));
+                Map<String, Object> content = new HashMap<>();
+                content.put("url", url);
+                content.put("messages", messages);
+
+                Mail.newMail()
+                        .from(from)
+                        .subject(Const.EMAIL_PREFIX + " " + messages.get("email.export.ready.subject"))
+                        .to(user.getUsername())
+                        .textMessage("emails/export_ready.ftl", content)
+                        .send();
+            } catch (MangooTemplateEngineException e) {
+                LOG.error("Failed to send export ready email", e);
+            }
+        }
+    }
+
     public void accountChanged(String username, String message) {
         Objects.requireNonNull(username, Required.USERNAME);
         Objects.requireNonNull(message, Required.MESSAGE);
@@ -0,0 +1,196 @@
+package services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.UpdateOptions;
+import constants.Const;
+import constants.Invalid;
+import constants.Required;
+import io.mangoo.persistence.interfaces.Datastore;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import models.Preview;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import utils.Utils;
+import utils.preview.LinkPreview;
+import utils.preview.LinkPreviewFetcher;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gt;
+import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.set;
+
+@Singleton
+public class PreviewService {
+    private static final Logger LOG = LogManager.getLogger(PreviewService.class);
+    private static final int MAX_ENTRIES = 10000;
+    private static final String REFRESH = "refresh|";
+    private final Map<String, CompletableFuture<LinkPreview>> inflight = new ConcurrentHashMap<>();
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder databaseHits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Cache<String, LinkPreview> cache;
+    private final Datastore datastore;
+    private final Duration ttl;
+
+    @Inject
+    public PreviewService(Datastore datastore, @Named("application.preview.ttl") int ttl) {
+        Utils.checkCondition(ttl > 0, Invalid.TTL);
+
+        this.datastore = Objects.requireNonNull(datastore, Required.DATASTORE);
+        this.ttl = Duration.ofHours(ttl);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(MAX_ENTRIES)
+                .expireAfterWrite(Duration.ofHours(1))
+                .build();
+    }
+
+    public void indexify() {
+        datastore.query(Preview.class)
+                .createIndex(Indexes.ascending(Const.KEY), new IndexOptions().unique(true));
+
+        datastore.query(Preview.class)
+                .createIndex(
+                        Indexes.ascending(Const.TIMESTAMP),
+                        new IndexOptions().expireAfter(ttl.toSeconds(), TimeUnit.SECONDS));
+    }
+
+    public LinkPreview fetch(String url, String language) {
+        return fetch(url, language, false);
+    }
+
+    public LinkPreview fetch(String url, String language, boolean refresh) {
+        Utils.checkCondition(Utils.isValidURL(url), Invalid.URL);
+
+        String key = key(url, language);
+        var preview = refresh ? null : cache.getIfPresent(key);
+        if (preview != null) {
+            memoryHits.increment();
+            return preview;
+        }
+
+        //Refreshes only coalesce with each other, never with a load that may answer from the cache
+        String flight = refresh ? REFRESH + key : key;
+        var future = new CompletableFuture<LinkPreview>();
+        var existing = inflight.putIfAbsent(flight, future);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+
+        try {
+            preview = load(key, url, language, refresh);
+            cache.put(key, preview);
+            future.complete(preview);
+
+            return preview;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(flight, future);
+        }
+    }
+
+    public Map<String, Long> metrics() {
+        return Map.of(
+                "memoryHits", memoryHits.sum(),
+                "databaseHits", databaseHits.sum(),
+                "coalesced", coalesced.sum(),
+                "misses", misses.sum(),
+                "entries", cache.estimatedSize());
+    }
+
+    private LinkPreview load(String key, String url, String language, boolean refresh) {
+        if (!refresh) {
+            var stored = (Preview) datastore.query(Preview.class)
+                    .find(and(
+                            eq(Const.KEY, key),
+                            gt(Const.TIMESTAMP, LocalDateTime.now().minus(ttl))))
+                    .first();
+
+            if (stored != null) {
+                databaseHits.increment();
+                return stored.toLinkPreview();
+            }
+        }
+
+        misses.increment();
+        var preview = LinkPreviewFetcher.fetch(url, language);
+
+        try {
+            datastore.query(Preview.class).updateOne(
+                    eq(Const.KEY, key),
+                    combine(
+                            set("title", preview.title()),
+                            set("description", preview.description()),
+                            set("url", preview.url()),
+                            set("domain", preview.domain()),
+                            set("image", preview.image()),
+                            set(Const.TIMESTAMP, LocalDateTime.now())),
+                    new UpdateOptions().upsert(true));
+        } catch (Exception e) {
+            LOG.error("Failed to store link preview", e);
+        }
+
+        return preview;
+    }
+
+    private static LinkPreview join(CompletableFuture<LinkPreview> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    static String key(String url, String language) {
+        var uri = URI.create(url).normalize();
+        String scheme = StringUtils.lowerCase(uri.getScheme(), Locale.ENGLISH);
+        String host = StringUtils.lowerCase(uri.getHost(), Locale.ENGLISH);
+        int port = uri.getPort();
+        if (("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443)) {
+            port = -1;
+        }
+
+        var key = new StringBuilder()
+                .append(StringUtils.defaultIfBlank(language, Const.DEFAULT_LANGUAGE))
+                .append('|')
+                .append(scheme)
+                .append("://")
+                .append(host);
+
+        if (port != -1) {
+            key.append(':').append(port);
+        }
+
+        key.append(StringUtils.defaultIfEmpty(uri.getRawPath(), "/"));
+        if (uri.getRawQuery() != null) {
+            key.append('?').append(uri.getRawQuery());
+        }
+
+        return key.toString();
+    }
+}
@@ -0,0 +1,242 @@
+package services;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import constants.Const;
+import constants.Invalid;
+import constants.Required;
+import io.mangoo.persistence.interfaces.Datastore;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import models.Item;
+import models.Job;
+import models.enums.JobType;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import utils.HostThrottle;
+import utils.Utils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gt;
+import static com.mongodb.client.model.Projections.include;
+import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.set;
+
+@Singleton
+public class ResyncService {
+    private static final Logger LOG = LogManager.getLogger(ResyncService.class);
+    private static final int BATCH_SIZE = 50;
+    private final Datastore datastore;
+    private final DataService dataService;
+    private final JobService jobService;
+    private final MediaService mediaService;
+    private final PreviewService previewService;
+    private final HostThrottle throttle;
+    private final Semaphore permits;
+
+    private record Outcome(Item item, String image, String mediaUid, boolean replaced) {}
+
+    @Inject
+    public ResyncService(Datastore datastore,
+                         DataService dataService,
+                         JobService jobService,
+                         MediaService mediaService,
+                         PreviewService previewService,
+                         @Named("application.resync.parallelism") int parallelism,
+                         @Named("application.resync.host.interval") long interval) {
+        Utils.checkCondition(parallelism > 0, Invalid.PARALLELISM);
+        Utils.checkCondition(interval >= 0, Invalid.INTERVAL);
+
+        this.datastore = Objects.requireNonNull(datastore, Required.DATASTORE);
+        this.dataService = Objects.requireNonNull(dataService, Required.DATA_SERVICE);
+        this.jobService = Objects.requireNonNull(jobService, Required.JOB_SERVICE);
+        this.mediaService = Objects.requireNonNull(mediaService, Required.MEDIA_SERVICE);
+        this.previewService = Objects.requireNonNull(previewService, Required.PREVIEW_SERVICE);
+        this.throttle = new HostThrottle(Duration.ofMillis(interval));
+        this.permits = new Semaphore(parallelism);
+    }
+
+    public boolean start(String userUid) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+
+        return jobService.enqueue(JobType.RESYNC, userUid, Map.of(), key(userUid)).isPresent();
+    }
+
+    public Map<String, Object> progress(String userUid) {
+        Utils.checkCondition(Utils.isValidRandom(userUid), Invalid.USER_UID);
+
+        Map<String, Object> progress = new HashMap<>();
+        Optional<Job> job = jobService.findByKey(key(userUid));
+        progress.put(Const.STATUS, job.map(value -> value.getStatus().name()).orElse("IDLE"));
+        progress.put(Const.PROCESSED, job.map(Job::getProcessed).orElse(0L));
+        progress.put(Const.TOTAL, job.map(Job::getTotal).orElse(0L));
+
+        return progress;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void run(Job job) throws InterruptedException {
+        Objects.requireNonNull(job, Required.JOB);
+
+        String userUid = job.getUserUid();
+        var user = dataService.findUserInfo(userUid);
+        if (user.isEmpty()) {
+            return;
+        }
+        String language = user.get().language();
+
+        long processed = job.getProcessed();
+        long total = job.getTotal() > 0 ? job.getTotal() : datastore.query(Item.class).countDocuments(eq(Const.USER_UID, userUid));
+        ObjectId checkpoint = ObjectId.isValid(job.getCheckpoint()) ? new ObjectId(job.getCheckpoint()) : null;
+        LOG.info("Resync of {} items started at {}", total, processed);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+
+                Bson filter = checkpoint == null
+                        ? eq(Const.USER_UID, userUid)
+                        : and(eq(Const.USER_UID, userUid), gt("_id", checkpoint));
+
+                List<Item> items = new ArrayList<>();
+                datastore.query(Item.class)
+                        .find(filter)
+                        .projection(include("_id", Const.UID, Const.USER_UID, Const.CATEGORY_UID, Const.MEDIA_UID, "url"))
+                        .sort(Sorts.ascending("_id"))
+                        .limit(BATCH_SIZE)
+                        .into(items);
+
+                if (items.isEmpty()) {
+                    break;
+                }
+
+                List<Future<Outcome>> futures = new ArrayList<>(items.size());
+                for (Item item : items) {
+                    futures.add(executor.submit(() -> resync(item, language)));
+                }
+
+                List<Outcome> outcomes = new ArrayList<>(futures.size());
+                for (Future<Outcome> future : futures) {
+                    try {
+                        outcomes.add(future.get());
+                    } catch (ExecutionException e) {
+                        LOG.error("Failed to resync item", e.getCause());
+                    }
+                }
+
+                write(userUid, outcomes);
+
+                checkpoint = items.getLast().getId();
+                processed += items.size();
+                if (!jobService.checkpoint(job, checkpoint.toHexString(), processed, Math.max(total, processed))) {
+                    LOG.warn("Lost lease on resync job {}", job.getUid());
+                    return;
+                }
+            }
+        }
+
+        LOG.info("Resync of {} items finished", processed);
+    }
+
+    private Outcome resync(Item item, String language) throws InterruptedException {
+        try {
+            throttle.acquire(item.getUrl());
+            var linkPreview = limited(() -> previewService.fetch(item.getUrl(), language, true));
+            String image = linkPreview.image();
+            if (!Const.PLACEHOLDER_IMAGE.equals(image) && StringUtils.isNotBlank(image)) {
+                throttle.acquire(image);
+                return new Outcome(item, image, limited(() -> mediaService.fetchAndStore(image, item.getUserUid())).orElse(null), true);
+            }
+
+            return new Outcome(item, image, item.getMediaUid(), false);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.error("Failed to fetch link preview", e);
+            return new Outcome(item, Const.PLACEHOLDER_IMAGE, item.getMediaUid(), false);
+        }
+    }
+
+    private <T> T limited(Supplier<T> task) throws InterruptedException {
+        permits.acquire();
+        try {
+            return task.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void write(String userUid, List<Outcome> outcomes) {
+        if (outcomes.isEmpty()) {
+            return;
+        }
+
+        List<WriteModel<Document>> updates = new ArrayList<>(outcomes.size());
+        Set<String> categoryUids = new HashSet<>();
+        List<String> itemUids = new ArrayList<>(outcomes.size());
+        for (Outcome outcome : outcomes) {
+            updates.add(new UpdateOneModel<>(
+                    and(eq(Const.USER_UID, userUid), eq(Const.UID, outcome.item().getUid())),
+                    combine(
+                            set("image", StringUtils.isNotBlank(outcome.image()) ? outcome.image() : Const.PLACEHOLDER_IMAGE),
+                            set(Const.MEDIA_UID, outcome.mediaUid()))));
+            categoryUids.add(outcome.item().getCategoryUid());
+            itemUids.add(outcome.item().getUid());
+        }
+
+        Set<Integer> failed = new HashSet<>();
+        try {
+            datastore.query(Item.class).bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            LOG.error("Failed to update {} resynced items", e.getWriteErrors().size(), e);
+            e.getWriteErrors().forEach(error -> failed.add(error.getIndex()));
+        } catch (MongoException e) {
+            outcomes.stream()
+                    .filter(Outcome::replaced)
+                    .forEach(outcome -> mediaService.clean(outcome.mediaUid()));
+            throw e;
+        }
+
+        for (int i = 0; i < outcomes.size(); i++) {
+            var outcome = outcomes.get(i);
+            if (outcome.replaced()) {
+                mediaService.clean(failed.contains(i) ? outcome.mediaUid() : outcome.item().getMediaUid());
+            }
+        }
+
+        categoryUids.forEach(categoryUid -> dataService.touchCategory(userUid, categoryUid));
+        dataService.recordChanges(userUid, itemUids);
+    }
+
+    private static String key(String userUid) {
+        return JobType.RESYNC.name() + ":" + userUid;
+    }
+}
@@ -0,0 +1,211 @@
+package services;
+
+import com.mongodb.CursorType;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoInterruptedException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReplaceOptions;
+import constants.Collections;
+import constants.Const;
+import constants.Required;
+import io.mangoo.persistence.interfaces.Datastore;
+import io.mangoo.utils.Argument;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gt;
+
+@Singleton
+public class RevocationService {
+    private static final Logger LOG = LogManager.getLogger(RevocationService.class);
+    private static final String ID = "_id";
+    private static final int NAMESPACE_EXISTS = 48;
+    private static final long FEED_SIZE_BYTES = 16L * 1024 * 1024;
+    private static final Duration AWAIT = Duration.ofSeconds(1);
+    private static final Duration SWEEP = Duration.ofMinutes(1);
+    private static final Duration SHUTDOWN = Duration.ofSeconds(5);
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final Datastore datastore;
+    private Thread tailer;
+    private volatile boolean running;
+    private volatile long swept;
+
+    @Inject
+    public RevocationService(Datastore datastore) {
+        this.datastore = Objects.requireNonNull(datastore, Required.DATASTORE);
+    }
+
+    public void indexify() {
+        revocations().createIndex(
+                Indexes.ascending(Const.EXPIRES),
+                new IndexOptions().expireAfter(0L, TimeUnit.SECONDS));
+
+        revocations().createIndex(
+                Indexes.ascending(Const.UID),
+                new IndexOptions().unique(true));
+
+        try {
+            datastore.getMongoDatabase().createCollection(Collections.REVOCATIONS_FEED,
+                    new CreateCollectionOptions().capped(true).sizeInBytes(FEED_SIZE_BYTES));
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() != NAMESPACE_EXISTS) {
+                throw e;
+            }
+        }
+    }
+
+    public void revoke(String id, Instant expires) {
+        Argument.requireNonBlank(id, Required.ID);
+        Objects.requireNonNull(expires, Required.EXPIRES);
+
+        remember(id, expires.toEpochMilli());
+        persist(id, expires);
+    }
+
+    public void revokeLater(String id, Instant expires) {
+        Argument.requireNonBlank(id, Required.ID);
+        Objects.requireNonNull(expires, Required.EXPIRES);
+
+        //Takes effect on this node right away, other nodes follow once the feed has it
+        remember(id, expires.toEpochMilli());
+        Thread.ofVirtual().name("revocation-writer").start(() -> {
+            try {
+                persist(id, expires);
+            } catch (Exception e) {
+                LOG.error("Failed to store revocation {}", id, e);
+            }
+        });
+    }
+
+    public boolean isRevoked(String id) {
+        Argument.requireNonBlank(id, Required.ID);
+
+        Long expires = revoked.get(id);
+        return expires != null && expires > System.currentTimeMillis();
+    }
+
+    public synchronized void start() {
+        if (tailer == null) {
+            running = true;
+            var since = new ObjectId(Date.from(Instant.now().minus(AWAIT)));
+            load();
+            tailer = Thread.ofVirtual().name("revocation-tailer").start(() -> tail(since));
+            LOG.info("Started revocation tailer with {} active revocations", revoked.size());
+        }
+    }
+
+    public synchronized void stop() {
+        if (tailer != null) {
+            running = false;
+            try {
+                if (!tailer.join(SHUTDOWN)) {
+                    tailer.interrupt();
+                }
+            } catch (InterruptedException e) {
+                tailer.interrupt();
+                Thread.currentThread().interrupt();
+            }
+
+            tailer = null;
+            LOG.info("Stopped revocation tailer");
+        }
+    }
+
+    private void tail(ObjectId since) {
+        ObjectId last = since;
+        while (running) {
+            try (MongoCursor<Document> cursor = feed().find(gt(ID, last))
+                    .cursorType(CursorType.TailableAwait)
+                    .maxAwaitTime(AWAIT.toMillis(), TimeUnit.MILLISECONDS)
+                    .iterator()) {
+
+                while (running) {
+                    Document document = cursor.tryNext();
+                    if (document != null) {
+                        last = document.getObjectId(ID);
+                        remember(document.getString(Const.UID), document.getDate(Const.EXPIRES).getTime());
+                    } else if (cursor.getServerCursor() == null) {
+                        break;
+                    }
+                    sweep();
+                }
+            } catch (MongoInterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (running) {
+                    LOG.error("Failed to tail revocations, reloading from store", e);
+                    load();
+                }
+            }
+
+            pause();
+        }
+    }
+
+    private void persist(String id, Instant expires) {
+        var document = new Document(Const.UID, id).append(Const.EXPIRES, Date.from(expires));
+        revocations().replaceOne(eq(Const.UID, id), document, new ReplaceOptions().upsert(true));
+        feed().insertOne(new Document(document));
+    }
+
+    private void load() {
+        try {
+            for (Document document : revocations().find(gt(Const.EXPIRES, new Date()))) {
+                remember(document.getString(Const.UID), document.getDate(Const.EXPIRES).getTime());
+            }
+        } catch (Exception e) {
+            LOG.error("Failed to load revocations", e);
+        }
+    }
+
+    private void remember(String id, long expires) {
+        if (id != null && expires > System.currentTimeMillis()) {
+            revoked.merge(id, expires, Math::max);
+        }
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        if (now - swept > SWEEP.toMillis()) {
+            swept = now;
+            revoked.values().removeIf(expires -> expires <= now);
+        }
+    }
+
+    private void pause() {
+        if (running) {
+            try {
+                Thread.sleep(AWAIT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+
+    private MongoCollection<Document> revocations() {
+        return datastore.getMongoDatabase().getCollection(Collections.REVOCATIONS);
+    }
+
+    private MongoCollection<Document> feed() {
+        return datastore.getMongoDatabase().getCollection(Collections.REVOCATIONS_FEED);
+    }
+}
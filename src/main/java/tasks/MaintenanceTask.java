@@ -6,22 +6,27 @@ import jakarta.inject.Inject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import services.DataService;
+import services.ExportService;
 
 import java.util.Objects;
 
 public class MaintenanceTask {
     private static final Logger LOG = LogManager.getLogger(MaintenanceTask.class);
     private final DataService dataService;
+    private final ExportService exportService;
 
     @Inject
-    public MaintenanceTask(DataService dataService) {
+    public MaintenanceTask(DataService dataService, ExportService exportService) {
         this.dataService = Objects.requireNonNull(dataService, Required.DATA_SERVICE);
+        this.exportService = Objects.requireNonNull(exportService, Required.EXPORT_SERVICE);
     }
 
     @Run(at = "Every 60m")
     public void execute() {
         LOG.info("Started maintenance task");
         dataService.cleanActions();
+        dataService.reconcileItemCounts();
+        exportService.purge();
         LOG.info("Finished maintenance task");
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package tasks;
+
+import constants.Required;
+import io.mangoo.annotations.Run;
+import jakarta.inject.Inject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import services.BackgroundService;
+import services.HashingService;
+import services.MediaService;
+import services.PreviewService;
+
+import java.util.Objects;
+
+public class MetricsTask {
+    private static final Logger LOG = LogManager.getLogger(MetricsTask.class);
+    private final BackgroundService backgroundService;
+    private final PreviewService previewService;
+    private final MediaService mediaService;
+    private final HashingService hashingService;
+
+    @Inject
+    public MetricsTask(BackgroundService backgroundService, PreviewService previewService, MediaService mediaService, HashingService hashingService) {
+        this.backgroundService = Objects.requireNonNull(backgroundService, Required.BACKGROUND_SERVICE);
+        this.previewService = Objects.requireNonNull(previewService, Required.PREVIEW_SERVICE);
+        this.mediaService = Objects.requireNonNull(mediaService, Required.MEDIA_SERVICE);
+        this.hashingService = Objects.requireNonNull(hashingService, Required.HASHING_SERVICE);
+    }
+
+    @Run(at = "Every 5m")
+    public void execute() {
+        LOG.info("Background tasks: {}", backgroundService.metrics());
+        LOG.info("Link previews: {}", previewService.metrics());
+        LOG.info("Media cache: {}", mediaService.metrics());
+        LOG.info("Password hashing: {}", hashingService.metrics());
+    }
+}
@@ -0,0 +1,61 @@
+package utils;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.util.Arrays;
+
+public record ByteRange(long start, long end) {
+    private static final ByteRange UNSATISFIABLE = new ByteRange(1, 0);
+
+    public boolean isSatisfiable() {
+        return start <= end;
+    }
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    public ByteRange limit(long max) {
+        return new ByteRange(start, Math.min(end, start + max - 1));
+    }
+
+    public byte[] slice(byte[] data) {
+        return Arrays.copyOfRange(data, Math.toIntExact(start), Math.toIntExact(end + 1));
+    }
+
+    public String contentRange(long total) {
+        return "bytes " + start + "-" + end + "/" + total;
+    }
+
+    public static ByteRange parse(String header, long length) {
+        if (StringUtils.isBlank(header) || !header.startsWith("bytes=") || header.contains(",")) {
+            return null;
+        }
+
+        String value = StringUtils.removeStart(header, "bytes=").strip();
+        String first = StringUtils.substringBefore(value, "-").strip();
+        String last = StringUtils.substringAfter(value, "-").strip();
+        if (!value.contains("-") || (first.isEmpty() && last.isEmpty())
+                || (!first.isEmpty() && !NumberUtils.isDigits(first))
+                || (!last.isEmpty() && !NumberUtils.isDigits(last))) {
+            return null;
+        }
+
+        if (first.isEmpty()) {
+            long suffix = NumberUtils.toLong(last, -1);
+            if (suffix <= 0 || length == 0) {
+                return UNSATISFIABLE;
+            }
+            return new ByteRange(Math.max(0, length - suffix), length - 1);
+        }
+
+        long start = NumberUtils.toLong(first, -1);
+        long end = last.isEmpty() ? length - 1L : Math.min(NumberUtils.toLong(last, -1), length - 1L);
+        if (start < 0 || start >= length || end < start) {
+            return UNSATISFIABLE;
+        }
+
+        return new ByteRange(start, end);
+    }
+}
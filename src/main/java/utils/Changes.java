@@ -0,0 +1,6 @@
+package utils;
+
+import java.util.Map;
+
+public record Changes(String token, Map<String, Long> counts) {
+}
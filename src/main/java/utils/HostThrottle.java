@@ -0,0 +1,32 @@
+package utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import constants.Invalid;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HostThrottle {
+    private final Cache<String, AtomicLong> hosts = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+    private final long interval;
+
+    public HostThrottle(Duration interval) {
+        Utils.checkCondition(interval != null && !interval.isNegative(), Invalid.INTERVAL);
+
+        this.interval = interval.toNanos();
+    }
+
+    public void acquire(String url) throws InterruptedException {
+        var next = hosts.get(Utils.getDomain(url), key -> new AtomicLong(System.nanoTime()));
+
+        long now = System.nanoTime();
+        long slot = next.getAndAccumulate(now, (previous, current) -> Math.max(previous, current) + interval);
+        long wait = Math.max(slot, now) - now;
+        if (wait > 0) {
+            Thread.sleep(Duration.ofNanos(wait));
+        }
+    }
+}
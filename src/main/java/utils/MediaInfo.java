@@ -0,0 +1,17 @@
+package utils;
+
+import java.util.Date;
+
+public record MediaInfo(String uid, String contentType, String hash, long length, Date uploaded) {
+    public String etag() {
+        return "\"" + hash + "\"";
+    }
+
+    public MediaInfo variant(String variant) {
+        return new MediaInfo(uid, contentType, hash + "-" + variant, length, uploaded);
+    }
+
+    public MediaInfo withContentType(String contentType) {
+        return new MediaInfo(uid, contentType, hash, length, uploaded);
+    }
+}
@@ -0,0 +1,10 @@
+package utils;
+
+import java.util.List;
+import java.util.Map;
+
+public record Page(List<Map<String, Object>> items, String next) {
+    public boolean hasNext() {
+        return next != null;
+    }
+}
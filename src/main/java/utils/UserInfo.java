@@ -0,0 +1,9 @@
+package utils;
+
+import models.User;
+
+public record UserInfo(String uid, String username, String pepper, String language, boolean mfa) {
+    public static UserInfo of(User user) {
+        return new UserInfo(user.getUid(), user.getUsername(), user.getPepper(), user.getLanguage(), user.isMfa());
+    }
+}
@@ -1,17 +1,24 @@
 package utils;
 
 import constants.Const;
+import constants.Invalid;
 import constants.Required;
 import io.mangoo.core.Config;
+import io.mangoo.routing.bindings.Request;
 import io.mangoo.utils.CommonUtils;
 import io.mangoo.utils.DateUtils;
 import io.undertow.server.handlers.Cookie;
 import io.undertow.server.handlers.CookieImpl;
 import io.undertow.server.handlers.CookieSameSiteMode;
+import models.Category;
 import models.User;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.util.Strings;
 
 import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -62,6 +69,41 @@ public final class Utils {
         }
     }
 
+    public static String getDomain(String url) {
+        try {
+            return StringUtils.removeStartIgnoreCase(StringUtils.defaultString(new URI(url).getHost()), "www.");
+        } catch (Exception e) {
+            return Strings.EMPTY;
+        }
+    }
+
+    public static String getClientIp(Request request, Set<String> proxies) {
+        Objects.requireNonNull(request, Required.REQUEST);
+        Objects.requireNonNull(proxies, Required.PROXIES);
+
+        var address = request.getHttpServerExchange().getSourceAddress();
+        String source = address != null && address.getAddress() != null ? address.getAddress().getHostAddress() : null;
+        if (source == null || !proxies.contains(source)) {
+            return source;
+        }
+
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (StringUtils.isBlank(forwarded)) {
+            return StringUtils.defaultIfBlank(StringUtils.trimToNull(request.getHeader("X-Real-IP")), source);
+        }
+
+        //Walk back from the nearest hop and skip our own proxies
+        String[] hops = StringUtils.split(forwarded, ",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = StringUtils.trimToNull(hops[i]);
+            if (hop != null && !proxies.contains(hop)) {
+                return hop;
+            }
+        }
+
+        return source;
+    }
+
     public static boolean isValidOtp(String mfa) {
         return StringUtils.isNotBlank(mfa) && MFA_PATTERN.matcher(mfa).matches();
     }
@@ -155,4 +197,100 @@ public final class Utils {
     public static String randomString() {
         return CommonUtils.randomString(32);
     }
+
+    public static String sha256(byte[] data) {
+        Objects.requireNonNull(data, Required.DATA);
+
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String contentType(byte[] data) {
+        Objects.requireNonNull(data, Required.DATA);
+
+        if (startsWith(data, 0x89, 'P', 'N', 'G')) {
+            return "image/png";
+        } else if (startsWith(data, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        } else if (startsWith(data, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        } else if (startsWith(data, 'R', 'I', 'F', 'F') && data.length >= 12 && data[8] == 'W' && data[9] == 'E' && data[10] == 'B' && data[11] == 'P') {
+            return "image/webp";
+        } else if (startsWith(data, 'B', 'M')) {
+            return "image/bmp";
+        } else if (startsWith(data, 0x00, 0x00, 0x01, 0x00)) {
+            return "image/x-icon";
+        }
+
+        String head = new String(data, 0, Math.min(data.length, 512), StandardCharsets.UTF_8).stripLeading();
+        if (StringUtils.startsWithIgnoreCase(head, "<svg") || (head.startsWith("<?xml") && StringUtils.containsIgnoreCase(head, "<svg"))) {
+            return "image/svg+xml";
+        }
+
+        return "application/octet-stream";
+    }
+
+    private static boolean startsWith(byte[] data, int... magic) {
+        if (data.length < magic.length) {
+            return false;
+        }
+
+        for (int i = 0; i < magic.length; i++) {
+            if ((data[i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public static String encodeCursor(LocalDateTime timestamp, String uid) {
+        Objects.requireNonNull(timestamp, Required.TIMESTAMP);
+        Objects.requireNonNull(uid, Required.UID);
+
+        String cursor = timestamp.toInstant(ZoneOffset.UTC).toEpochMilli() + ":" + uid;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String etag(Category category, String... variant) {
+        Objects.requireNonNull(category, Required.CATEGORY);
+
+        var etag = new StringJoiner("-", "\"", "\"");
+        etag.add(category.getUid()).add(String.valueOf(category.getVersion()));
+        for (String value : variant) {
+            etag.add(StringUtils.defaultString(value));
+        }
+
+        return etag.toString();
+    }
+
+    public static String etag(Collection<Category> categories) {
+        Objects.requireNonNull(categories, Required.CATEGORIES);
+
+        var buffer = new StringBuilder();
+        categories.stream()
+                .sorted(Comparator.comparing(Category::getUid))
+                .forEach(category -> buffer.append(category.getUid()).append(':').append(category.getVersion()).append(';'));
+
+        return "\"" + CommonUtils.hexSHA512(buffer.toString()) + "\"";
+    }
+
+    public static Map.Entry<LocalDateTime, String> decodeCursor(String cursor) {
+        Objects.requireNonNull(cursor, Invalid.CURSOR);
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String millis = StringUtils.substringBefore(value, ":");
+            String uid = StringUtils.substringAfter(value, ":");
+            checkCondition(isValidRandom(uid), Invalid.CURSOR);
+
+            var timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(millis)), ZoneOffset.UTC);
+            return Map.entry(timestamp, uid);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(Invalid.CURSOR, e);
+        }
+    }
 }
\ No newline at end of file
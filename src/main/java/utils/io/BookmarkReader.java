@@ -0,0 +1,295 @@
+package utils.io;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.jsoup.parser.Parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+final class BookmarkReader {
+    private static final long MAX_CONTENT_LENGTH = 64L * 1024 * 1024;
+    private static final int MAX_BOOKMARKS = 100000;
+    private static final int MAX_DEPTH = 64;
+    private static final int MAX_ELEMENTS = 1000000;
+    private static final int MAX_TAG_LENGTH = 64 * 1024;
+    private static final int MAX_TEXT_LENGTH = 4096;
+    private final Reader reader;
+    private final BiConsumer<String, Leaf> consumer;
+    private final List<String> folders = new ArrayList<>();
+    private final StringBuilder tag = new StringBuilder();
+    private final StringBuilder text = new StringBuilder();
+    private Leaf current;
+    private String folder;
+    private boolean structure;
+    private long length;
+    private long elements;
+    private long bookmarks;
+
+    BookmarkReader(Reader reader, BiConsumer<String, Leaf> consumer) {
+        this.reader = reader;
+        this.consumer = consumer;
+    }
+
+    long read() throws IOException {
+        int c;
+        while ((c = next()) != -1) {
+            if (c == '<') {
+                tag();
+            } else if (current != null && text.length() < MAX_TEXT_LENGTH) {
+                text.append((char) c);
+            }
+        }
+        finish();
+
+        if (!structure) {
+            throw new SecurityException("No bookmark structure found");
+        }
+
+        return bookmarks;
+    }
+
+    private int next() throws IOException {
+        int c = reader.read();
+        if (c != -1 && ++length > MAX_CONTENT_LENGTH) {
+            throw new SecurityException("Content too large");
+        }
+
+        return c;
+    }
+
+    private void tag() throws IOException {
+        tag.setLength(0);
+        int quote = 0;
+        int c;
+        while ((c = next()) != -1) {
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                break;
+            }
+
+            if (tag.length() >= MAX_TAG_LENGTH) {
+                throw new SecurityException("Element too large");
+            }
+            tag.append((char) c);
+
+            if (tag.length() == 3 && "!--".contentEquals(tag)) {
+                comment();
+                return;
+            }
+        }
+
+        element();
+    }
+
+    private void comment() throws IOException {
+        int dashes = 0;
+        int c;
+        while ((c = next()) != -1) {
+            if (c == '>' && dashes >= 2) {
+                return;
+            }
+            dashes = c == '-' ? dashes + 1 : 0;
+        }
+    }
+
+    private void element() {
+        boolean closing = !tag.isEmpty() && tag.charAt(0) == '/';
+        int position = closing ? 1 : 0;
+        int start = position;
+        while (position < tag.length() && Character.isLetterOrDigit(tag.charAt(position))) {
+            position++;
+        }
+
+        String name = tag.substring(start, position).toLowerCase(Locale.ENGLISH);
+        if (name.isEmpty()) {
+            return;
+        }
+
+        if (++elements > MAX_ELEMENTS) {
+            throw new SecurityException("Too many HTML elements");
+        }
+
+        if ("script".equals(name)) {
+            throw new SecurityException("Content contains potentially dangerous elements");
+        }
+
+        Map<String, String> attributes = closing ? Map.of() : attributes(position);
+        if (closing) {
+            close(name);
+        } else {
+            open(name, attributes);
+        }
+    }
+
+    private Map<String, String> attributes(int position) {
+        Map<String, String> attributes = new HashMap<>();
+        int length = tag.length();
+        while (position < length) {
+            while (position < length && (Character.isWhitespace(tag.charAt(position)) || tag.charAt(position) == '/')) {
+                position++;
+            }
+
+            int start = position;
+            while (position < length && !Character.isWhitespace(tag.charAt(position)) && tag.charAt(position) != '=' && tag.charAt(position) != '/') {
+                position++;
+            }
+            if (start == position) {
+                break;
+            }
+            String name = tag.substring(start, position).toLowerCase(Locale.ENGLISH);
+
+            while (position < length && Character.isWhitespace(tag.charAt(position))) {
+                position++;
+            }
+
+            String value = StringUtils.EMPTY;
+            if (position < length && tag.charAt(position) == '=') {
+                position++;
+                while (position < length && Character.isWhitespace(tag.charAt(position))) {
+                    position++;
+                }
+
+                if (position < length && (tag.charAt(position) == '"' || tag.charAt(position) == '\'')) {
+                    char quote = tag.charAt(position++);
+                    start = position;
+                    while (position < length && tag.charAt(position) != quote) {
+                        position++;
+                    }
+                    value = tag.substring(start, position);
+                    position++;
+                } else {
+                    start = position;
+                    while (position < length && !Character.isWhitespace(tag.charAt(position))) {
+                        position++;
+                    }
+                    value = tag.substring(start, position);
+                }
+            }
+
+            value = Parser.unescapeEntities(value, true);
+            if (isDangerous(name, value)) {
+                throw new SecurityException("Content contains potentially dangerous elements");
+            }
+            attributes.putIfAbsent(name, value);
+        }
+
+        return attributes;
+    }
+
+    private void open(String name, Map<String, String> attributes) {
+        switch (name) {
+            case "dl" -> {
+                finish();
+                if (folders.size() >= MAX_DEPTH) {
+                    throw new SecurityException("Folders nested too deeply");
+                }
+                folders.add(folder != null ? folder : parent());
+                folder = null;
+                structure = true;
+            }
+            case "h3" -> {
+                finish();
+                folder = null;
+                current = leaf(true, attributes);
+            }
+            case "a" -> {
+                finish();
+                folder = null;
+                current = leaf(false, attributes);
+                current.setUrl(attributes.getOrDefault("href", StringUtils.EMPTY));
+                structure = true;
+            }
+            case "dt", "dd" -> finish();
+            default -> {
+                //Intentionally left blank
+            }
+        }
+    }
+
+    private void close(String name) {
+        switch (name) {
+            case "h3", "a" -> finish();
+            case "dl" -> {
+                finish();
+                folder = null;
+                if (!folders.isEmpty()) {
+                    folders.removeLast();
+                }
+            }
+            default -> {
+                //Intentionally left blank
+            }
+        }
+    }
+
+    private void finish() {
+        if (current == null) {
+            return;
+        }
+
+        current.setTitle(Parser.unescapeEntities(StringUtils.normalizeSpace(text.toString()), false));
+        if (current.isFolder()) {
+            folder = current.getTitle();
+        } else {
+            if (++bookmarks > MAX_BOOKMARKS) {
+                throw new SecurityException("Too many bookmarks");
+            }
+            consumer.accept(parent(), current);
+        }
+
+        current = null;
+        text.setLength(0);
+    }
+
+    private String parent() {
+        return folders.isEmpty() ? null : folders.getLast();
+    }
+
+    private Leaf leaf(boolean isFolder, Map<String, String> attributes) {
+        var leaf = new Leaf();
+        leaf.setFolder(isFolder);
+        leaf.setAddDate(instant(attributes.get("add_date")));
+        leaf.setLastModified(instant(attributes.get("last_modified")));
+        leaf.setDataCover(StringUtils.defaultIfEmpty(attributes.get("data-cover"), null));
+        text.setLength(0);
+
+        return leaf;
+    }
+
+    private static Instant instant(String value) {
+        long seconds = NumberUtils.toLong(value, -1);
+        if (seconds < 0) {
+            return null;
+        }
+
+        try {
+            return Instant.ofEpochSecond(seconds);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean isDangerous(String name, String value) {
+        if (name.startsWith("on")) {
+            return true;
+        }
+
+        String normalized = StringUtils.deleteWhitespace(value).toLowerCase(Locale.ENGLISH);
+
+        return normalized.contains("javascript:") || normalized.contains("vbscript:");
+    }
+}
@@ -0,0 +1,110 @@
+package utils.io;
+
+import constants.Required;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.Objects;
+
+public final class BookmarkWriter implements Closeable {
+    private final Writer writer;
+    private int depth = 1;
+
+    public BookmarkWriter(Writer writer) throws IOException {
+        this.writer = Objects.requireNonNull(writer, Required.WRITER);
+        this.writer.write("""
+                <!DOCTYPE NETSCAPE-Bookmark-file-1>
+                <!-- This is an automatically generated file.
+                     It will be read and overwritten.
+                     DO NOT EDIT! -->
+                <META HTTP-EQUIV="Content-Type" CONTENT="text/html; charset=UTF-8">
+                <TITLE>Bookmarks</TITLE>
+                <H1>Bookmarks</H1>
+                <DL><p>
+                """);
+    }
+
+    public void openFolder(Leaf folder) throws IOException {
+        Objects.requireNonNull(folder, Required.FOLDER);
+
+        String indentation = indentation();
+        writer.write(indentation);
+        writer.write("<DT><H3");
+        attributes(folder);
+        writer.write(">");
+        writer.write(escapeHtml(folder.getTitle()));
+        writer.write("</H3>\n");
+        writer.write(indentation);
+        writer.write("<DL><p>\n");
+        depth++;
+    }
+
+    public void closeFolder() throws IOException {
+        if (depth > 1) {
+            depth--;
+            writer.write(indentation());
+            writer.write("</DL><p>\n");
+        }
+    }
+
+    public void bookmark(Leaf bookmark) throws IOException {
+        Objects.requireNonNull(bookmark, Required.BOOKMARK);
+
+        writer.write(indentation());
+        writer.write("<DT><A HREF=\"");
+        writer.write(escapeHtml(bookmark.getUrl()));
+        writer.write("\"");
+        attributes(bookmark);
+        writer.write(">");
+        writer.write(escapeHtml(bookmark.getTitle()));
+        writer.write("</A>\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        while (depth > 1) {
+            closeFolder();
+        }
+        writer.write("</DL><p>\n");
+        writer.flush();
+    }
+
+    private void attributes(Leaf leaf) throws IOException {
+        attribute("ADD_DATE", leaf.getAddDate());
+        attribute("LAST_MODIFIED", leaf.getLastModified());
+        if (leaf.getDataCover() != null) {
+            writer.write(" DATA-COVER=\"");
+            writer.write(escapeHtml(leaf.getDataCover()));
+            writer.write("\"");
+        }
+    }
+
+    private void attribute(String name, Instant instant) throws IOException {
+        if (instant != null) {
+            writer.write(" ");
+            writer.write(name);
+            writer.write("=\"");
+            writer.write(String.valueOf(instant.getEpochSecond()));
+            writer.write("\"");
+        }
+    }
+
+    private String indentation() {
+        return "    ".repeat(depth);
+    }
+
+    private static String escapeHtml(String text) {
+        if (text == null) {
+            return StringUtils.EMPTY;
+        }
+
+        return text.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&#39;");
+    }
+}
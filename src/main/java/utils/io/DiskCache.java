@@ -0,0 +1,336 @@
+package utils.io;
+
+import constants.Required;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import utils.Utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+public class DiskCache {
+    private static final Logger LOG = LogManager.getLogger(DiskCache.class);
+    private static final String INDEX = "index";
+    private static final String JOURNAL = "journal";
+    private static final String PUT = "P";
+    private static final String REMOVE = "R";
+    private static final int COMPACT_THRESHOLD = 1024;
+    private static final String SUFFIX = ".bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Pattern KEY = Pattern.compile("^[a-zA-Z0-9-]{1,64}$");
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Path directory;
+    private final long budget;
+    private Writer journal;
+    private int journalLines;
+    private long size;
+
+    private record Entry(long size, long crc) {}
+
+    public DiskCache(Path directory, long budget) {
+        this.directory = Objects.requireNonNull(directory, Required.DIRECTORY);
+        this.budget = budget;
+        load();
+    }
+
+    public Optional<byte[]> get(String uid) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(uid);
+        }
+
+        return entry != null ? read(uid, entry, 0, Math.toIntExact(entry.size())) : miss();
+    }
+
+    public Optional<byte[]> get(String uid, long offset, int length) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(uid);
+        }
+
+        return entry != null && offset >= 0 && length >= 0 && offset + length <= entry.size()
+                ? read(uid, entry, offset, length)
+                : miss();
+    }
+
+    //A plain on-disk tier: reads are copied onto the heap, but only the requested slice of the file
+    private Optional<byte[]> read(String uid, Entry entry, long offset, int length) {
+        try (var channel = FileChannel.open(file(uid), StandardOpenOption.READ)) {
+            if (channel.size() != entry.size()) {
+                throw new IOException("Unexpected size of cached file " + uid);
+            }
+
+            var buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of cached file " + uid);
+                }
+            }
+            hits.increment();
+
+            return Optional.of(buffer.array());
+        } catch (IOException e) {
+            LOG.error("Failed to read {} from disk cache", uid, e);
+            invalidate(uid);
+
+            return miss();
+        }
+    }
+
+    private Optional<byte[]> miss() {
+        misses.increment();
+
+        return Optional.empty();
+    }
+
+    public void put(String uid, byte[] data) {
+        Objects.requireNonNull(data, Required.DATA);
+        if (!isValidKey(uid) || data.length > budget) {
+            return;
+        }
+
+        var crc = new CRC32();
+        crc.update(data);
+
+        Path temp = directory.resolve(uid + "." + Utils.randomString() + TEMP_SUFFIX);
+        try {
+            Files.write(temp, data);
+            Files.move(temp, file(uid), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.error("Failed to write {} to disk cache", uid, e);
+            deleteQuietly(temp);
+            return;
+        }
+
+        synchronized (this) {
+            var previous = entries.put(uid, new Entry(data.length, crc.getValue()));
+            if (previous != null) {
+                size -= previous.size();
+            }
+            size += data.length;
+
+            append(PUT + "\t" + uid + "\t" + data.length + "\t" + crc.getValue());
+            evict();
+            compactIfNeeded();
+        }
+    }
+
+    public synchronized void invalidate(String uid) {
+        var entry = entries.remove(uid);
+        if (entry != null) {
+            size -= entry.size();
+            deleteQuietly(file(uid));
+            append(REMOVE + "\t" + uid);
+            compactIfNeeded();
+        }
+    }
+
+    public synchronized void close() {
+        compact();
+        closeJournal();
+    }
+
+    public Map<String, Long> metrics() {
+        synchronized (this) {
+            return Map.of(
+                    "diskHits", hits.sum(),
+                    "diskMisses", misses.sum(),
+                    "diskEvictions", evictions.sum(),
+                    "diskEntries", (long) entries.size(),
+                    "diskBytes", size);
+        }
+    }
+
+    private synchronized void load() {
+        try {
+            Files.createDirectories(directory);
+
+            Path index = directory.resolve(INDEX);
+            if (Files.exists(index)) {
+                for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+                    String[] parts = StringUtils.split(line, '\t');
+                    if (parts.length == 3 && isValidKey(parts[0])) {
+                        var entry = new Entry(NumberUtils.toLong(parts[1], -1), NumberUtils.toLong(parts[2], -1));
+                        if (isIntact(parts[0], entry)) {
+                            entries.put(parts[0], entry);
+                            size += entry.size();
+                        } else {
+                            LOG.warn("Removed corrupt entry {} from disk cache", parts[0]);
+                            deleteQuietly(file(parts[0]));
+                        }
+                    }
+                }
+            }
+
+            Path journalFile = directory.resolve(JOURNAL);
+            if (Files.exists(journalFile)) {
+                for (String line : Files.readAllLines(journalFile, StandardCharsets.UTF_8)) {
+                    replay(StringUtils.split(line, '\t'));
+                }
+            }
+
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(path -> !INDEX.equals(path.getFileName().toString()))
+                        .filter(path -> !JOURNAL.equals(path.getFileName().toString()))
+                        .filter(path -> !entries.containsKey(StringUtils.removeEnd(path.getFileName().toString(), SUFFIX)))
+                        .forEach(this::deleteQuietly);
+            }
+
+            evict();
+            compact();
+            LOG.info("Loaded {} entries with {} bytes into disk cache", entries.size(), size);
+        } catch (IOException e) {
+            LOG.error("Failed to load disk cache from {}", directory, e);
+            entries.clear();
+            size = 0;
+        }
+    }
+
+    private void replay(String[] parts) {
+        if (parts.length == 4 && PUT.equals(parts[0]) && isValidKey(parts[1])) {
+            var entry = new Entry(NumberUtils.toLong(parts[2], -1), NumberUtils.toLong(parts[3], -1));
+            var previous = entries.remove(parts[1]);
+            if (previous != null) {
+                size -= previous.size();
+            }
+            if (isIntact(parts[1], entry)) {
+                entries.put(parts[1], entry);
+                size += entry.size();
+            }
+        } else if (parts.length == 2 && REMOVE.equals(parts[0])) {
+            var previous = entries.remove(parts[1]);
+            if (previous != null) {
+                size -= previous.size();
+            }
+        }
+    }
+
+    private boolean isIntact(String uid, Entry entry) {
+        Path file = file(uid);
+        if (entry.size() < 0 || entry.crc() < 0 || !Files.isRegularFile(file)) {
+            return false;
+        }
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != entry.size()) {
+                return false;
+            }
+
+            var crc = new CRC32();
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, entry.size()));
+
+            return crc.getValue() == entry.crc();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (size > budget && iterator.hasNext()) {
+            var eldest = iterator.next();
+            iterator.remove();
+            size -= eldest.getValue().size();
+            deleteQuietly(file(eldest.getKey()));
+            append(REMOVE + "\t" + eldest.getKey());
+            evictions.increment();
+        }
+    }
+
+    private void append(String line) {
+        if (journal == null) {
+            return;
+        }
+
+        try {
+            journal.write(line);
+            journal.write('\n');
+            journal.flush();
+            journalLines++;
+        } catch (IOException e) {
+            LOG.error("Failed to append to disk cache journal", e);
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (journalLines > Math.max(COMPACT_THRESHOLD, entries.size())) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        closeJournal();
+        writeIndex();
+
+        try {
+            journal = Files.newBufferedWriter(directory.resolve(JOURNAL), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            journalLines = 0;
+        } catch (IOException e) {
+            LOG.error("Failed to open disk cache journal", e);
+        }
+    }
+
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                LOG.error("Failed to close disk cache journal", e);
+            }
+            journal = null;
+        }
+    }
+
+    private void writeIndex() {
+        List<String> lines = new ArrayList<>(entries.size());
+        entries.forEach((uid, entry) -> lines.add(uid + "\t" + entry.size() + "\t" + entry.crc()));
+
+        Path temp = directory.resolve(INDEX + TEMP_SUFFIX);
+        try {
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, directory.resolve(INDEX), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.error("Failed to write disk cache index", e);
+        }
+    }
+
+    private static boolean isValidKey(String key) {
+        return key != null && KEY.matcher(key).matches();
+    }
+
+    private Path file(String uid) {
+        return directory.resolve(uid + SUFFIX);
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOG.error("Failed to delete {} from disk cache", path, e);
+        }
+    }
+}
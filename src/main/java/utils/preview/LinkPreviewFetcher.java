@@ -27,6 +27,10 @@ public final class LinkPreviewFetcher {
                 .withTimeout(Duration.ofSeconds(30))
                 .send();
 
+        if (!result.isValid()) {
+            throw new IllegalStateException("Received invalid response from link preview endpoint");
+        }
+
         LOG.info("Link preview fetch result: {}", result.body());
 
         return buildLinkPreview(result.body(), url);
@@ -35,6 +35,9 @@ const bookmarkDeletedSuccess = i18n.bookmarkDeletedSuccess;
 const categoryCreatedSuccess = i18n.categoryCreatedSuccess;
 const bookmarkCreatedSuccess = i18n.bookmarkCreatedSuccess;
 const logoutDevicesSuccess = i18n.logoutDevicesSuccess;
+const cardAdded = i18n.cardAdded;
+const cardDragTooltip = i18n.cardDragTooltip;
+const cardDeleteTooltip = i18n.cardDeleteTooltip;
 
 function openModal(e) {
     e.classList.add('is-active');
@@ -440,32 +443,181 @@ function focusFirstVisibleInput(selector) {
     }
 }
 
-async function polling() {
+function createElement(tag, className, text) {
+    const element = document.createElement(tag);
+    if (className) element.className = className;
+    if (text != null) element.textContent = text;
+    return element;
+}
+
+function truncate(text, length) {
+    return text.length > length ? text.substring(0, length - 3) + '...' : text;
+}
+
+function createCard(item, category, trash) {
+    const column = createElement('div', 'column is-one-quarter');
+    const card = createElement('div', 'card');
+    card.dataset.uid = item.uid;
+    card.dataset.category = category;
+
+    const imageLink = createElement('a', 'card-link');
+    imageLink.href = item.url;
+    imageLink.target = '_blank';
+    const cardImage = createElement('div', 'card-image');
+    const imageContainer = createElement('div', 'image-container');
+    const img = createElement('img');
+    if (item.image.includes('/media/image/')) {
+        img.src = item.image + '?size=small';
+        img.srcset = item.image + '?size=small 1x, ' + item.image + '?size=medium 2x';
+    } else {
+        img.src = item.image;
+    }
+    img.loading = 'lazy';
+    img.alt = item.description;
+    img.title = item.description;
+    imageContainer.appendChild(img);
+    cardImage.appendChild(imageContainer);
+    imageLink.appendChild(cardImage);
+
+    const content = createElement('div', 'card-content');
+    const wrapper = createElement('div', 'card-title-wrapper is-flex is-justify-content-space-between is-align-items-flex-start');
+    const title = createElement('p', 'card-title');
+    const titleLink = createElement('a', 'card-link-no-decoration', item.title);
+    titleLink.href = item.url;
+    titleLink.target = '_blank';
+    title.appendChild(titleLink);
+
+    const actions = createElement('div', 'is-flex');
+    const move = createElement('span', 'icon card-move');
+    move.dataset.tooltip = cardDragTooltip;
+    const moveIcon = createElement('i', 'fas fa-folder-open dragging');
+    moveIcon.draggable = true;
+    moveIcon.dataset.uid = item.uid;
+    moveIcon.dataset.category = category;
+    moveIcon.addEventListener('dragstart', handleDragStart);
+    moveIcon.addEventListener('dragend', handleDragEnd);
+    move.appendChild(moveIcon);
+    actions.appendChild(move);
+
+    if (!trash) {
+        const remove = createElement('span', 'icon card-trash');
+        remove.dataset.tooltip = cardDeleteTooltip;
+        remove.appendChild(createElement('i', 'fas fa-trash-alt'));
+        remove.addEventListener('click', handleCardTrashClick);
+        actions.appendChild(remove);
+    }
+
+    wrapper.appendChild(title);
+    wrapper.appendChild(actions);
+
+    const meta = createElement('div', 'card-meta');
+    const domain = createElement('span', 'card-domain');
+    const domainLink = createElement('a', null, truncate(item.domain ? item.domain : item.url, 30));
+    domainLink.href = item.url;
+    domainLink.target = '_blank';
+    domainLink.title = item.url;
+    domain.appendChild(domainLink);
+    meta.appendChild(domain);
+    meta.appendChild(createElement('span', 'card-added', `${cardAdded} ${item.added}`));
+
+    content.appendChild(wrapper);
+    content.appendChild(meta);
+    card.appendChild(imageLink);
+    card.appendChild(content);
+    column.appendChild(card);
+
+    return column;
+}
+
+let loadingMore = false;
+
+async function loadMore(sentinel, observer) {
+    const next = sentinel.dataset.next;
+    if (loadingMore || !next) return;
+    loadingMore = true;
+
     try {
-        const count = $$('.card').length;
-        const match = window.location.pathname.match(/\/dashboard\/(.+)/);
-        const uid = match ? match[1] : null;
+        const category = sentinel.dataset.category;
+        const response = await apiBaseRequest(`/api/v1/items/${category}?cursor=${encodeURIComponent(next)}`);
+        const page = await response.json();
+        const items = $id('items');
 
-        const response = await window.apiPostNoThrow('/api/v1/categories/poll', {
-            count: count.toString(),
-            category: uid
-        });
+        page.items.forEach(item => items.appendChild(createCard(item, category, sentinel.dataset.trash === 'true')));
+
+        if (page.next) {
+            sentinel.dataset.next = page.next;
+        } else {
+            delete sentinel.dataset.next;
+            observer.disconnect();
+        }
 
-        if (response.status !== 200 && response.status !== 304) {
-            return;
+        const searchInput = $id('search-input');
+        if (searchInput?.value) {
+            search({ target: searchInput });
         }
+    } catch (error) {
+        console.log(error);
+    } finally {
+        loadingMore = false;
+    }
+}
+
+function setupLoadMore() {
+    const sentinel = $id('load-more');
+    if (!sentinel || !('IntersectionObserver' in window)) return;
+
+    const observer = new IntersectionObserver((entries) => {
+        if (entries.some(entry => entry.isIntersecting)) {
+            loadMore(sentinel, observer);
+        }
+    }, { rootMargin: '400px' });
+
+    observer.observe(sentinel);
+}
 
-        if (response.status === 200) {
-            location.reload();
-            return;
+const sleep = (ms) => new Promise(resolve => setTimeout(resolve, ms));
+
+async function listenForChanges() {
+    let token = poll.changes;
+    let failures = 0;
+    const count = Number(poll.count);
+
+    while (true) {
+        const started = Date.now();
+        let failed = false;
+
+        try {
+            const response = await window.apiPostNoThrow('/api/v1/categories/changes', { token: token });
+
+            if (response.status === 200) {
+                const changes = await response.json();
+                const changed = changes.counts?.[poll.category];
+
+                if (changed !== undefined && changed !== count) {
+                    location.reload();
+                    return;
+                }
+
+                token = changes.token;
+            } else if (response.status !== 304) {
+                failed = true;
+            }
+        } catch (error) {
+            failed = true;
         }
 
-        setTimeout(polling, 3000);
-    } catch (error) {}
+        // Back off exponentially on errors, and when the server answered right away instead of holding the request
+        failures = failed ? Math.min(failures + 1, 6) : 0;
+        if (failed) {
+            await sleep(3000 * 2 ** (failures - 1));
+        } else if (Date.now() - started < 1000) {
+            await sleep(3000);
+        }
+    }
 }
 
-if (poll != null && poll.poll === "true") {
-    polling();
+if (poll != null && poll.poll === "true" && poll.changes) {
+    listenForChanges();
 }
 
 class ThemeManager {
@@ -559,6 +711,7 @@ function toggleTheme() {
     }
 }
 
+setupLoadMore();
 focusFirstVisibleInput('.otp-input');
 setupAutoFocusNext('.otp-input');
 on(document, 'keydown', handleKeyNavigation);
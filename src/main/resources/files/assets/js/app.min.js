@@ -1 +1,64 @@
-const $id=e=>document.getElementById(e),$=e=>document.querySelector(e),$$=e=>document.querySelectorAll(e),on=(e,t,o)=>{const a="string"==typeof e?document.querySelector(e):e;a&&a.addEventListener(t,o)},onAll=(e,t,o)=>{const a=$$(e);a.length&&a.forEach(e=>e.addEventListener(t,o))},forAll=(e,t)=>{const o=$$(e);o.length&&o.forEach(t)};let $categoryToRename=null,$categoryToDelete=null;const toastSuccess="toast-success",toastError="toast-error",poll=$id("poll-js")?.dataset??null,i18n=$id("i18n-js").dataset,generalError=i18n.error,bookmarkMovedSuccess=i18n.bookmarkMovedSuccess,categoryDeletedSuccess=i18n.categoryDeletedSuccess,categoryRenamedSuccess=i18n.categoryRenamedSuccess,trashEmptiedSuccess=i18n.trashEmptiedSuccess,bookmarkDeletedSuccess=i18n.bookmarkDeletedSuccess,categoryCreatedSuccess=i18n.categoryCreatedSuccess,bookmarkCreatedSuccess=i18n.bookmarkCreatedSuccess,logoutDevicesSuccess=i18n.logoutDevicesSuccess;function openModal(e){e.classList.add("is-active"),"add-category-modal"===e.id&&setTimeout(()=>{$id("category").focus()},100)}function closeModal(e){e.classList.remove("is-active")}function closeAllModals(){forAll(".modal",closeModal)}function showLoading(e){const t=$id(e);t&&(t.classList.add("is-loading"),t.disabled=!0)}function handleAddClick(){openModal($id("add-category-modal"))}function handleDragStart(e){const t=e.currentTarget,o=document.createElement("div");o.className="drag-icon",o.innerHTML='<i class="fas fa-bookmark fa-2x"></i>',o.style.position="absolute",o.style.top="-1000px",o.style.color="#3273dc",document.body.appendChild(o),e.dataTransfer.setDragImage(o,25,25),t.closest(".card")?.classList.add("dragging"),e.dataTransfer.setData("text/plain",t.dataset.uid),e.dataTransfer.setData("category",t.dataset.category),setTimeout(()=>{document.body.removeChild(o)},0)}function handleDragEnd(e){const t=e.currentTarget;t.closest(".card")?.classList.remove("dragging")}function handleDragOver(e){e.preventDefault(),e.currentTarget.classList.add("drag-over")}function handleDragLeave(e){e.currentTarget.classList.remove("drag-over")}function handleDrop(e){e.preventDefault();const t=e.currentTarget;t.classList.remove("drag-over");const o=e.dataTransfer.getData("text/plain"),a=t.dataset.uid,s=e.dataTransfer.getData("category");window.apiPut("/api/v1/items",{uid:o,category:a}).then(()=>{sessionStorage.setItem(toastSuccess,bookmarkMovedSuccess)}).catch(e=>{console.log(e),sessionStorage.setItem(toastError,generalError)}).finally(()=>{window.location.href="/dashboard/"+s})}function handleCardTrashClick(e){e.preventDefault(),e.stopPropagation(),deleteItem(e.currentTarget.closest(".card"))}function handleDeleteAccountClick(e){e.preventDefault(),e.stopPropagation(),openModal($id("delete-account-modal"))}function handleLogoutDevicesClick(e){e.preventDefault(),e.stopPropagation(),openModal($id("logout-devices-confirm-modal"))}function handleCategoryTrashClick(e){e.preventDefault(),e.stopPropagation(),$categoryToDelete=e.currentTarget,openModal($id("delete-category-confirm-modal"))}function handleCategoryRenameClick(e){e.preventDefault(),e.stopPropagation(),$categoryToRename=e.currentTarget,$id("existing-category").value=$categoryToRename.dataset.name,openModal($id("rename-category-modal"))}function handleConfirmCategoryDelete(){if($categoryToDelete){const e=$categoryToDelete.dataset.uid;window.apiDelete(`/api/v1/categories/${e}`).then(()=>{closeAllModals(),sessionStorage.setItem(toastSuccess,categoryDeletedSuccess)}).catch(e=>{console.log(e),sessionStorage.setItem(toastError,generalError)}).finally(()=>{closeAllModals(),window.location.href="/dashboard"})}}function handleLogoutDevices(){window.apiPost("/dashboard/profile/logout-devices",{}).then(()=>{closeAllModals(),sessionStorage.setItem(toastSuccess,logoutDevicesSuccess)}).catch(e=>{console.log(e),sessionStorage.setItem(toastError,generalError)}).finally(()=>{window.location.href="/dashboard/profile"})}function handleAddCategory(e){e.preventDefault();const t=$id("category"),o=t?.value;o?window.apiPost("/api/v1/categories",{name:o}).then(()=>{sessionStorage.setItem(toastSuccess,categoryCreatedSuccess),t.value="",closeAllModals()}).catch(e=>{console.log(e),sessionStorage.setItem(toastError,generalError)}).finally(()=>{window.location.href="/dashboard"}):t?.classList.add("is-danger")}function handleRenameCategory(e){e.preventDefault();const t=$id("existing-category"),o=$categoryToRename.dataset.uid,a=t?.value;a?window.apiPut("/api/v1/categories",{uid:o,name:a}).then(()=>{sessionStorage.setItem(toastSuccess,categoryRenamedSuccess),t.value="",closeAllModals()}).catch(e=>{console.log(e),sessionStorage.setItem(toastError,generalError)}).finally(()=>{window.location.href="/dashboard/"+o}):t?.classList.add("is-danger")}function confirmEmptyTrash(){window.apiDelete("/api/v1/items/trash").then(()=>{closeAllModals(),sessionStorage.setItem(toastSuccess,trashEmptiedSuccess)}).catch(e=>{console.log(e),sessionStorage.setItem(toastError,generalError)}).finally(()=>{window.location.href="/dashboard"})}function deleteItem(e){e.style.transition="all 0.3s ease",e.style.opacity="0",setTimeout(()=>{e.closest(".column").remove()},300);const t=e.dataset.uid,o=e.dataset.category;window.apiPut(`/api/v1/items/${t}`,{}).then(()=>{closeAllModals(),sessionStorage.setItem(toastSuccess,bookmarkDeletedSuccess)}).catch(e=>{console.log(e),sessionStorage.setItem(toastError,e)}).finally(()=>{window.location.href="/dashboard/"+o})}function emptyTrash(e){e.preventDefault(),e.stopPropagation(),openModal($id("empty-trash-confirm-modal"))}function clearUrlError(){$id("bookmark-url")?.classList.remove("is-danger")}function showToast(e,t="success",o=3e3){const a=document.querySelector(".toast-container");if(!a)return;const s=document.createElement("div");s.className="toast "+("error"===t?"is-danger":""),s.innerHTML=`\n        <span class="icon">\n            <i class="fas ${"error"===t?"fa-exclamation-circle":"fa-check-circle"}"></i>\n        </span>\n        <span>${e}</span>\n    `,a.appendChild(s),s.offsetHeight,requestAnimationFrame(()=>{s.classList.add("is-active")}),setTimeout(()=>{s.classList.remove("is-active"),setTimeout(()=>{a.removeChild(s)},300)},o)}function addBookmarkModal(){openModal($id("add-bookmark-modal"))}function handleToastsOnLoad(){const e=sessionStorage.getItem(toastSuccess);e&&(showToast(e),sessionStorage.removeItem(toastSuccess));const t=sessionStorage.getItem(toastError);t&&(showToast(t,"error"),sessionStorage.setItem(toastError,""))}function addBookmark(e){e.preventDefault(),e.stopPropagation();const t=$id("bookmark-url").value,o=$id("bookmark-category").value,a=$id("confirm-add-bookmark");t&&o&&(a.classList.add("is-loading"),a.disabled=!0,window.apiPost("/api/v1/items",{url:t,category:o}).then(()=>{sessionStorage.setItem(toastSuccess,bookmarkCreatedSuccess),closeAllModals(),window.location.href="/dashboard/"+o}).catch(e=>{console.log(e),sessionStorage.setItem(toastError,generalError)}).finally(()=>{a.classList.remove("is-loading"),a.disabled=!1}))}function search(e){const t=e?.target?.value.toLowerCase()||"";$$(".card").forEach(e=>{const o=e.querySelector(".card-title")?.textContent.toLowerCase()||"",a=e.closest(".column");a&&(a.style.display=t?o.includes(t)?"":"none":"")})}function handleKeyNavigation(e){if("Enter"===e.key){const t=$(".modal.is-active");if(!t)return;const o=t.querySelector("[data-confirm]");o&&(e.preventDefault(),o.click())}"Escape"===e.code&&closeAllModals()}function setupAutoFocusNext(e){const t=document.querySelectorAll(e);t.forEach((e,o)=>{on(e,"input",e=>{const a=e.target.value;e.target.value=a.replace(/[^0-9]/g,"").slice(0,1),e.target.value&&o<t.length-1&&t[o+1].focus()})})}function focusFirstVisibleInput(e){const t=document.querySelectorAll(e);for(let e of t)if(null!==e.offsetParent){e.focus();break}}async function polling(){try{const e=$$(".card").length,t=window.location.pathname.match(/\/dashboard\/(.+)/),o=t?t[1]:null,a=await window.apiPostNoThrow("/api/v1/categories/poll",{count:e.toString(),category:o});if(200!==a.status&&304!==a.status)return;if(200===a.status)return void location.reload();setTimeout(polling,3e3)}catch(e){}}null!=poll&&"true"===poll.poll&&polling();class ThemeManager{constructor(){this.theme=this.getStoredTheme(),this.init()}init(){this.applyTheme(this.theme),this.createToggleButton()}getStoredTheme(){const e=localStorage.getItem("theme");return!e||"light"!==e&&"dark"!==e?window.matchMedia&&window.matchMedia("(prefers-color-scheme: dark)").matches?"dark":"light":e}applyTheme(e){const t=document.documentElement;"dark"===e?(t.setAttribute("data-theme","dark"),t.classList.add("theme-dark")):(t.removeAttribute("data-theme"),t.classList.remove("theme-dark")),this.theme=e,localStorage.setItem("theme",e)}toggleTheme(){const e="light"===this.theme?"dark":"light";this.applyTheme(e),this.updateToggleButton()}createToggleButton(){const e=document.getElementById("theme-toggle");e&&e.remove();const t=document.createElement("button");t.id="theme-toggle",t.className="theme-toggle-button",t.innerHTML=this.getToggleIcon(),t.setAttribute("aria-label",`Switch to ${"light"===this.theme?"dark":"light"} mode`),t.setAttribute("title",`Switch to ${"light"===this.theme?"dark":"light"} mode`),t.addEventListener("click",()=>this.toggleTheme()),document.body.appendChild(t)}updateToggleButton(){const e=document.getElementById("theme-toggle");e&&(e.innerHTML=this.getToggleIcon(),e.setAttribute("aria-label",`Switch to ${"light"===this.theme?"dark":"light"} mode`),e.setAttribute("title",`Switch to ${"light"===this.theme?"dark":"light"} mode`))}getToggleIcon(){return"light"===this.theme?"🌙":"☀️"}}let themeToggle;function toggleTheme(){themeToggle&&themeToggle.toggleTheme()}document.addEventListener("DOMContentLoaded",()=>{themeToggle=new ThemeManager}),focusFirstVisibleInput(".otp-input"),setupAutoFocusNext(".otp-input"),on(document,"keydown",handleKeyNavigation),on(window,"load",handleToastsOnLoad),on("#add-category-button","click",handleAddClick),on("#add-category-submit","click",handleAddCategory),on("#rename-category-submit","click",handleRenameCategory),on("#confirm-empty-trash","click",confirmEmptyTrash),on("#bookmark-url","input",clearUrlError),on("#add-bookmark","click",addBookmarkModal),on("#search-input","input",search),on("#confirm-add-bookmark","click",addBookmark),on("#confirm-logout-devices","click",handleLogoutDevices),on("#logout-devices","click",handleLogoutDevicesClick),on("#delete-account","click",handleDeleteAccountClick),on("#confirm-category-delete","click",handleConfirmCategoryDelete),onAll(".category-trash","click",handleCategoryTrashClick),onAll(".category-rename","click",handleCategoryRenameClick),onAll(".card-trash","click",handleCardTrashClick),onAll(".modal-background, .modal-card-head .delete, .modal-card-foot .button:not(.is-danger)","click",closeAllModals),onAll(".empty-trash","click",emptyTrash),forAll('.dragging[draggable="true"]',e=>{e.addEventListener("dragstart",handleDragStart),e.addEventListener("dragend",handleDragEnd)}),forAll(".menu-list a[data-category]",e=>{e.addEventListener("dragover",handleDragOver),e.addEventListener("dragleave",handleDragLeave),e.addEventListener("drop",handleDrop)});
\ No newline at end of file
+const $id=e=>document.getElementById(e),$=e=>document.querySelector(e),$$=e=>document.querySelectorAll(e),on=(e,n,o)=>{const t=typeof e==='string'?document.querySelector(e):e;if(t)t.addEventListener(n,o)},onAll=(t,n,o)=>{const e=$$(t);if(e.length)e.forEach(e=>e.addEventListener(n,o))},forAll=(t,n)=>{const e=$$(t);if(e.length)e.forEach(n)};let $categoryToRename=null,$categoryToDelete=null;const toastSuccess='toast-success',toastError='toast-error',poll=$id('poll-js')?.dataset??null,i18n=$id('i18n-js').dataset,generalError=i18n.error,bookmarkMovedSuccess=i18n.bookmarkMovedSuccess,categoryDeletedSuccess=i18n.categoryDeletedSuccess,categoryRenamedSuccess=i18n.categoryRenamedSuccess,trashEmptiedSuccess=i18n.trashEmptiedSuccess,bookmarkDeletedSuccess=i18n.bookmarkDeletedSuccess,categoryCreatedSuccess=i18n.categoryCreatedSuccess,bookmarkCreatedSuccess=i18n.bookmarkCreatedSuccess,logoutDevicesSuccess=i18n.logoutDevicesSuccess,cardAdded=i18n.cardAdded,cardDragTooltip=i18n.cardDragTooltip,cardDeleteTooltip=i18n.cardDeleteTooltip;function openModal(e){e.classList.add('is-active');if(e.id==='add-category-modal'){setTimeout(()=>{$id('category').focus()},100)}}
+function closeModal(e){e.classList.remove('is-active')}
+function closeAllModals(){forAll('.modal',closeModal)}
+function showLoading(t){const e=$id(t);if(e){e.classList.add('is-loading');e.disabled=true}}
+function handleAddClick(){openModal($id('add-category-modal'))}
+function handleDragStart(t){const n=t.currentTarget,e=document.createElement('div');e.className='drag-icon';e.innerHTML='<i class="fas fa-bookmark fa-2x"></i>';e.style.position='absolute';e.style.top='-1000px';e.style.color='#3273dc';document.body.appendChild(e);t.dataTransfer.setDragImage(e,25,25);n.closest('.card')?.classList.add('dragging');t.dataTransfer.setData('text/plain',n.dataset.uid);t.dataTransfer.setData('category',n.dataset.category);setTimeout(()=>{document.body.removeChild(e)},0)}
+function handleDragEnd(t){const e=t.currentTarget;e.closest('.card')?.classList.remove('dragging')}
+function handleDragOver(e){e.preventDefault();e.currentTarget.classList.add('drag-over')}
+function handleDragLeave(e){e.currentTarget.classList.remove('drag-over')}
+function handleDrop(e){e.preventDefault();const t=e.currentTarget;t.classList.remove('drag-over');const n=e.dataTransfer.getData('text/plain'),o=t.dataset.uid,a=e.dataTransfer.getData('category');window.apiPut("/api/v1/items",{uid:n,category:o}).then(()=>{sessionStorage.setItem(toastSuccess,bookmarkMovedSuccess)}).catch(e=>{console.log(e);sessionStorage.setItem(toastError,generalError)}).finally(()=>{window.location.href="/dashboard/"+a})}
+function handleCardTrashClick(e){e.preventDefault();e.stopPropagation();deleteItem(e.currentTarget.closest('.card'))}
+function handleDeleteAccountClick(e){e.preventDefault();e.stopPropagation();openModal($id('delete-account-modal'))}
+function handleLogoutDevicesClick(e){e.preventDefault();e.stopPropagation();openModal($id('logout-devices-confirm-modal'))}
+function handleCategoryTrashClick(e){e.preventDefault();e.stopPropagation();$categoryToDelete=e.currentTarget;openModal($id('delete-category-confirm-modal'))}
+function handleCategoryRenameClick(e){e.preventDefault();e.stopPropagation();$categoryToRename=e.currentTarget;$id('existing-category').value=$categoryToRename.dataset.name;openModal($id('rename-category-modal'))}
+function handleConfirmCategoryDelete(){if($categoryToDelete){const e=$categoryToDelete.dataset.uid;window.apiDelete(`/api/v1/categories/${e}`).then(()=>{closeAllModals();sessionStorage.setItem(toastSuccess,categoryDeletedSuccess)}).catch(e=>{console.log(e);sessionStorage.setItem(toastError,generalError)}).finally(()=>{closeAllModals();window.location.href="/dashboard"})}}
+function handleLogoutDevices(){window.apiPost("/dashboard/profile/logout-devices",{}).then(()=>{closeAllModals();sessionStorage.setItem(toastSuccess,logoutDevicesSuccess)}).catch(e=>{console.log(e);sessionStorage.setItem(toastError,generalError)}).finally(()=>{window.location.href="/dashboard/profile"})}
+function handleAddCategory(n){n.preventDefault();const e=$id('category'),t=e?.value;if(t){window.apiPost("/api/v1/categories",{name:t}).then(()=>{sessionStorage.setItem(toastSuccess,categoryCreatedSuccess);e.value='';closeAllModals()}).catch(e=>{console.log(e);sessionStorage.setItem(toastError,generalError)}).finally(()=>{window.location.href="/dashboard"})}else{e?.classList.add('is-danger')}}
+function handleRenameCategory(o){o.preventDefault();const e=$id('existing-category'),t=$categoryToRename.dataset.uid,n=e?.value;if(n){window.apiPut("/api/v1/categories",{uid:t,name:n}).then(()=>{sessionStorage.setItem(toastSuccess,categoryRenamedSuccess);e.value='';closeAllModals()}).catch(e=>{console.log(e);sessionStorage.setItem(toastError,generalError)}).finally(()=>{window.location.href="/dashboard/"+t})}else{e?.classList.add('is-danger')}}
+function confirmEmptyTrash(){window.apiDelete("/api/v1/items/trash").then(()=>{closeAllModals();sessionStorage.setItem(toastSuccess,trashEmptiedSuccess)}).catch(e=>{console.log(e);sessionStorage.setItem(toastError,generalError)}).finally(()=>{window.location.href="/dashboard"})}
+function deleteItem(e){e.style.transition='all 0.3s ease';e.style.opacity='0';setTimeout(()=>{e.closest('.column').remove()},300);const t=e.dataset.uid,n=e.dataset.category;window.apiPut(`/api/v1/items/${t}`,{}).then(()=>{closeAllModals();sessionStorage.setItem(toastSuccess,bookmarkDeletedSuccess)}).catch(e=>{console.log(e);sessionStorage.setItem(toastError,e)}).finally(()=>{window.location.href="/dashboard/"+n})}
+function emptyTrash(e){e.preventDefault();e.stopPropagation();openModal($id('empty-trash-confirm-modal'))}
+function clearUrlError(){$id('bookmark-url')?.classList.remove('is-danger')}
+function showToast(o,n='success',a=3000){const t=document.querySelector('.toast-container');if(!t)return;const e=document.createElement('div');e.className=`toast ${n==='error'?'is-danger':''}`;e.innerHTML=`
+        <span class="icon">
+            <i class="fas ${n==='error'?'fa-exclamation-circle':'fa-check-circle'}"></i>
+        </span>
+        <span>${o}</span>
+    `;t.appendChild(e);e.offsetHeight;requestAnimationFrame(()=>{e.classList.add('is-active')});setTimeout(()=>{e.classList.remove('is-active');setTimeout(()=>{t.removeChild(e)},300)},a)}
+function addBookmarkModal(){openModal($id('add-bookmark-modal'))}
+function handleToastsOnLoad(){const e=sessionStorage.getItem(toastSuccess);if(e){showToast(e);sessionStorage.removeItem(toastSuccess)}
+const t=sessionStorage.getItem(toastError);if(t){showToast(t,"error");sessionStorage.setItem(toastError,"")}}
+function addBookmark(o){o.preventDefault();o.stopPropagation();const n=$id('bookmark-url').value,t=$id('bookmark-category').value,e=$id('confirm-add-bookmark');if(n&&t){e.classList.add('is-loading');e.disabled=true;window.apiPost('/api/v1/items',{url:n,category:t}).then(()=>{sessionStorage.setItem(toastSuccess,bookmarkCreatedSuccess);closeAllModals();window.location.href="/dashboard/"+t}).catch(e=>{console.log(e);sessionStorage.setItem(toastError,generalError)}).finally(()=>{e.classList.remove('is-loading');e.disabled=false})}}
+function search(n){const e=n?.target?.value.toLowerCase()||'',t=$$('.card');t.forEach(n=>{const o=n.querySelector('.card-title')?.textContent.toLowerCase()||'',t=n.closest('.column');if(t){if(!e){t.style.display=''}else{t.style.display=o.includes(e)?'':'none'}}})}
+function handleKeyNavigation(e){if(e.key==="Enter"){const t=$('.modal.is-active');if(!t)return;const n=t.querySelector('[data-confirm]');if(n){e.preventDefault();n.click()}}
+if(e.code==="Escape"){closeAllModals()}}
+function setupAutoFocusNext(t){const e=document.querySelectorAll(t);e.forEach((n,t)=>{on(n,'input',n=>{const o=n.target.value;n.target.value=o.replace(/[^0-9]/g,'').slice(0,1);if(n.target.value&&t<e.length-1){e[t+1].focus()}})})}
+function focusFirstVisibleInput(t){const e=document.querySelectorAll(t);for(let t of e){if(t.offsetParent!==null){t.focus();break}}}
+function createElement(o,t,n){const e=document.createElement(o);if(t)e.className=t;if(n!=null)e.textContent=n;return e}
+function truncate(e,t){return e.length>t?e.substring(0,t-3)+'...':e}
+function createCard(e,b,v){const f=createElement('div','column is-one-quarter'),o=createElement('div','card');o.dataset.uid=e.uid;o.dataset.category=b;const a=createElement('a','card-link');a.href=e.url;a.target='_blank';const h=createElement('div','card-image'),p=createElement('div','image-container'),t=createElement('img');if(e.image.includes('/media/image/')){t.src=e.image+'?size=small';t.srcset=e.image+'?size=small 1x, '+e.image+'?size=medium 2x'}else{t.src=e.image}
+t.loading='lazy';t.alt=e.description;t.title=e.description;p.appendChild(t);h.appendChild(p);a.appendChild(h);const i=createElement('div','card-content'),s=createElement('div','card-title-wrapper is-flex is-justify-content-space-between is-align-items-flex-start'),m=createElement('p','card-title'),c=createElement('a','card-link-no-decoration',e.title);c.href=e.url;c.target='_blank';m.appendChild(c);const l=createElement('div','is-flex'),d=createElement('span','icon card-move');d.dataset.tooltip=cardDragTooltip;const n=createElement('i','fas fa-folder-open dragging');n.draggable=true;n.dataset.uid=e.uid;n.dataset.category=b;n.addEventListener('dragstart',handleDragStart);n.addEventListener('dragend',handleDragEnd);d.appendChild(n);l.appendChild(d);if(!v){const e=createElement('span','icon card-trash');e.dataset.tooltip=cardDeleteTooltip;e.appendChild(createElement('i','fas fa-trash-alt'));e.addEventListener('click',handleCardTrashClick);l.appendChild(e)}
+s.appendChild(m);s.appendChild(l);const u=createElement('div','card-meta'),g=createElement('span','card-domain'),r=createElement('a',null,truncate(e.domain?e.domain:e.url,30));r.href=e.url;r.target='_blank';r.title=e.url;g.appendChild(r);u.appendChild(g);u.appendChild(createElement('span','card-added',`${cardAdded} ${e.added}`));i.appendChild(s);i.appendChild(u);o.appendChild(a);o.appendChild(i);f.appendChild(o);return f}
+let loadingMore=false;async function loadMore(e,n){const t=e.dataset.next;if(loadingMore||!t)return;loadingMore=true;try{const a=e.dataset.category,i=await apiBaseRequest(`/api/v1/items/${a}?cursor=${encodeURIComponent(t)}`),o=await i.json(),s=$id('items');o.items.forEach(t=>s.appendChild(createCard(t,a,e.dataset.trash==='true')));if(o.next){e.dataset.next=o.next}else{delete e.dataset.next;n.disconnect()}
+const r=$id('search-input');if(r?.value){search({target:r})}}catch(e){console.log(e)}finally{loadingMore=false}}
+function setupLoadMore(){const e=$id('load-more');if(!e||!('IntersectionObserver'in window))return;const t=new IntersectionObserver(n=>{if(n.some(e=>e.isIntersecting)){loadMore(e,t)}},{rootMargin:'400px'});t.observe(e)}
+const sleep=e=>new Promise(t=>setTimeout(t,e));async function listenForChanges(){let t=poll.changes,e=0;const n=Number(poll.count);while(true){const a=Date.now();let o=false;try{const e=await window.apiPostNoThrow('/api/v1/categories/changes',{token:t});if(e.status===200){const o=await e.json(),a=o.counts?.[poll.category];if(a!==undefined&&a!==n){location.reload();return}
+t=o.token}else if(e.status!==304){o=true}}catch(e){o=true}
+e=o?Math.min(e+1,6):0;if(o){await sleep(3000*2**(e-1))}else if(Date.now()-a<1000){await sleep(3000)}}}
+if(poll!=null&&poll.poll==="true"&&poll.changes){listenForChanges()}
+class ThemeManager{constructor(){this.theme=this.getStoredTheme();this.init()}
+init(){this.applyTheme(this.theme);this.createToggleButton()}
+getStoredTheme(){const e=localStorage.getItem('theme');if(e&&(e==='light'||e==='dark')){return e}
+if(window.matchMedia&&window.matchMedia('(prefers-color-scheme: dark)').matches){return'dark'}
+return'light'}
+applyTheme(t){const e=document.documentElement;if(t==='dark'){e.setAttribute('data-theme','dark');e.classList.add('theme-dark')}else{e.removeAttribute('data-theme');e.classList.remove('theme-dark')}
+this.theme=t;localStorage.setItem('theme',t)}
+toggleTheme(){const e=this.theme==='light'?'dark':'light';this.applyTheme(e);this.updateToggleButton()}
+createToggleButton(){const t=document.getElementById('theme-toggle');if(t){t.remove()}
+const e=document.createElement('button');e.id='theme-toggle';e.className='theme-toggle-button';e.innerHTML=this.getToggleIcon();e.setAttribute('aria-label',`Switch to ${this.theme==='light'?'dark':'light'} mode`);e.setAttribute('title',`Switch to ${this.theme==='light'?'dark':'light'} mode`);e.addEventListener('click',()=>this.toggleTheme());document.body.appendChild(e)}
+updateToggleButton(){const e=document.getElementById('theme-toggle');if(e){e.innerHTML=this.getToggleIcon();e.setAttribute('aria-label',`Switch to ${this.theme==='light'?'dark':'light'} mode`);e.setAttribute('title',`Switch to ${this.theme==='light'?'dark':'light'} mode`)}}
+getToggleIcon(){return this.theme==='light'?'🌙':'☀️'}}
+let themeToggle;document.addEventListener('DOMContentLoaded',()=>{themeToggle=new ThemeManager()});function toggleTheme(){if(themeToggle){themeToggle.toggleTheme()}}
+setupLoadMore();focusFirstVisibleInput('.otp-input');setupAutoFocusNext('.otp-input');on(document,'keydown',handleKeyNavigation);on(window,'load',handleToastsOnLoad);on('#add-category-button','click',handleAddClick);on('#add-category-submit','click',handleAddCategory);on('#rename-category-submit','click',handleRenameCategory);on('#confirm-empty-trash','click',confirmEmptyTrash);on('#bookmark-url','input',clearUrlError);on('#add-bookmark','click',addBookmarkModal);on('#search-input','input',search);on('#confirm-add-bookmark','click',addBookmark);on('#confirm-logout-devices','click',handleLogoutDevices);on('#logout-devices','click',handleLogoutDevicesClick);on('#delete-account','click',handleDeleteAccountClick);on('#confirm-category-delete','click',handleConfirmCategoryDelete);onAll('.category-trash','click',handleCategoryTrashClick);onAll('.category-rename','click',handleCategoryRenameClick);onAll('.card-trash','click',handleCardTrashClick);onAll('.modal-background, .modal-card-head .delete, .modal-card-foot .button:not(.is-danger)','click',closeAllModals);onAll('.empty-trash','click',emptyTrash);forAll('.dragging[draggable="true"]',e=>{e.addEventListener('dragstart',handleDragStart);e.addEventListener('dragend',handleDragEnd)});forAll('.menu-list a[data-category]',e=>{e.addEventListener('dragover',handleDragOver);e.addEventListener('dragleave',handleDragLeave);e.addEventListener('drop',handleDrop)});
\ No newline at end of file
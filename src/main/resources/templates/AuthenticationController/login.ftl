@@ -18,6 +18,12 @@
                 ${flash.error}
             </div>
         </#if>
+        <#if flash.toasterror??>
+            <div class="notification is-danger is-light mb-5">
+                <button class="delete"></button>
+                ${flash.toasterror}
+            </div>
+        </#if>
         <form action="/auth/login" method="POST" onsubmit="showLoading('login-button')">
             <div class="field">
                 <div class="control has-icons-left<#if form.hasError("username")> has-icons-right</#if>">
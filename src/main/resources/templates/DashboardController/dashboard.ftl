@@ -28,7 +28,7 @@
     </div>
     </#if>
 </div>
-<div class="columns is-multiline">
+<div class="columns is-multiline" id="items">
     <#if flash.warning??>
         <div class="notification is-warning">
             ${flash.warning}
@@ -40,7 +40,11 @@
                 <a href="${item.url}" target="_blank" class="card-link">
                     <div class="card-image">
                         <div class="image-container">
-                            <img src="${item.image}" alt="${item.description}" title="${item.description}">
+                            <#if item.image?contains("/media/image/")>
+                            <img src="${item.image}?size=small" srcset="${item.image}?size=small 1x, ${item.image}?size=medium 2x" alt="${item.description}" title="${item.description}" loading="lazy">
+                            <#else>
+                            <img src="${item.image}" alt="${item.description}" title="${item.description}" loading="lazy">
+                            </#if>
                         </div>
                     </div>
                 </a>
@@ -81,4 +85,7 @@
         </#if>
     </#list>
 </div>
+<#if next??>
+<div id="load-more" data-next="${next}" data-category="${categoryUid}" data-trash="<#if active == 'trash'>true<#else>false</#if>"></div>
+</#if>
 </@layout.myLayout>
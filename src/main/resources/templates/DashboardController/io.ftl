@@ -35,6 +35,29 @@
                     </div>
                 </div>
             </form>
+            <form action="/dashboard/io/export" method="post" class="profile-section">
+                <h2 class="section-title">${i18n("io.archive.title")}</h2>
+                <div class="form-field">
+                    <label class="label">${i18n("io.archive.label")}</label>
+                </div>
+                <#if exportReady>
+                <div class="form-field">
+                    <div class="control">
+                        <a href="/dashboard/io/download" class="button is-fullwidth">${i18n("io.archive.download")}</a>
+                    </div>
+                </div>
+                </#if>
+                <div class="form-field">
+                    <div class="control">
+                        <#if exportRunning>
+                        <input type="submit" class="button is-link is-fullwidth" value="${i18n("io.archive.running")}" disabled>
+                        <#else>
+                        <input type="submit" class="button is-link is-fullwidth" value="${i18n("io.archive.button")}">
+                        </#if>
+                    </div>
+                </div>
+                <@csrfform/>
+            </form>
         </div>
     </div>
 </div>
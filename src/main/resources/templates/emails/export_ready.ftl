@@ -0,0 +1,5 @@
+${messages.get("email.export.ready.line.1")}
+
+${url}/dashboard/io
+
+${messages.get("email.export.ready.line.2")}
\ No newline at end of file
@@ -103,9 +103,12 @@
      data-category-created-success='${i18n("js.category.created")}'
      data-bookmark-created-success='${i18n("js.bookmark.created")}'
      data-logout-devices-success='${i18n("js.logout.devices.success")}'
-     data-archived-success='${i18n("js.archived.success")}'>
+     data-archived-success='${i18n("js.archived.success")}'
+     data-card-added='${i18n("dashboard.card.added")}'
+     data-card-drag-tooltip='${i18n("dashboard.card.drag.tooltip")}'
+     data-card-delete-tooltip='${i18n("dashboard.card.delete.tooltip")}'>
 </div>
-<div id="poll-js" data-poll="<#if poll??>true<#else>false</#if>"></div>
+<div id="poll-js" data-poll="<#if poll??>true<#else>false</#if>"<#if itemCount??> data-count="${itemCount?c}"</#if><#if changes??> data-changes="${changes}"</#if><#if categoryUid??> data-category="${categoryUid}"</#if>></div>
 <div id="x-csrf-token" data-csrf-token='<@csrftoken/>'></div>
 <script src="/assets/js/api.min.js"></script>
 <script src="/assets/js/app.min.js"></script>
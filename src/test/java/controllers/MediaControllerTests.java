@@ -0,0 +1,112 @@
+package controllers;
+
+import io.mangoo.core.Application;
+import io.mangoo.test.http.TestRequest;
+import io.mangoo.test.http.TestResponse;
+import models.enums.Thumbnail;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import services.MediaService;
+import utils.Utils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@ExtendWith({TestExtension.class})
+public class MediaControllerTests {
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 1, 2, 3, 4};
+    private static String UID;
+
+    @BeforeAll
+    public static void init() {
+        UID = Application.getInstance(MediaService.class).store(PNG, Utils.randomString());
+    }
+
+    @Test
+    void testImage() {
+        //when
+        TestResponse response = TestRequest.get("/media/image/" + UID).execute();
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getHeader("Content-Type")).startsWith("image/png");
+        assertThat(response.getHeader("ETag")).isEqualTo("\"" + Utils.sha256(PNG) + "\"");
+        assertThat(response.getHeader("Last-Modified")).isNotEmpty();
+        assertThat(response.getHeader("Cache-Control")).isEqualTo("public, max-age=31536000, immutable");
+    }
+
+    @Test
+    void testImageNotModified() {
+        //given
+        String etag = TestRequest.get("/media/image/" + UID).execute().getHeader("ETag");
+
+        //when
+        TestResponse response = TestRequest.get("/media/image/" + UID)
+                .withHeader("If-None-Match", etag)
+                .execute();
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(304);
+    }
+
+    @Test
+    void testImageRange() {
+        //when
+        TestResponse response = TestRequest.get("/media/image/" + UID)
+                .withHeader("Range", "bytes=8-")
+                .execute();
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 8-11/12");
+
+        //when
+        response = TestRequest.get("/media/image/" + UID)
+                .withHeader("Range", "bytes=100-")
+                .execute();
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(416);
+    }
+
+    @Test
+    void testImageThumbnail() throws IOException {
+        //given
+        var image = new BufferedImage(1200, 600, BufferedImage.TYPE_INT_RGB);
+        var output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        String uid = Application.getInstance(MediaService.class).store(output.toByteArray(), Utils.randomString());
+
+        //when
+        TestResponse response = TestRequest.get("/media/image/" + uid + "?size=small").execute();
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getHeader("Content-Type")).startsWith("image/jpeg");
+        assertThat(response.getHeader("ETag")).endsWith("-small\"");
+
+        //when
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(Application.getInstance(MediaService.class)
+                .thumbnail(uid, Thumbnail.SMALL)
+                .orElseThrow()));
+
+        //then
+        assertThat(thumbnail.getWidth()).isEqualTo(Thumbnail.SMALL.getWidth());
+        assertThat(thumbnail.getHeight()).isEqualTo(Thumbnail.SMALL.getWidth() / 2);
+    }
+
+    @Test
+    void testImageNotFound() {
+        //when
+        TestResponse response = TestRequest.get("/media/image/" + Utils.randomString()).execute();
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(404);
+    }
+}
@@ -83,6 +83,106 @@ public class CategoriesControllerV1Tests {
         """);
     }
 
+    @Test
+    void testETag() {
+        //when
+        TestResponse response = TestRequest.get("/api/v1/categories")
+                .withHeader("Authorization", ACCESS_TOKEN)
+                .withContentType("application/json")
+                .execute();
+
+        //then
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getHeader("ETag")).isNotEmpty();
+
+        String etag = response.getHeader("ETag");
+
+        //when
+        response = TestRequest.get("/api/v1/categories")
+                .withHeader("Authorization", ACCESS_TOKEN)
+                .withHeader("If-None-Match", etag)
+                .withContentType("application/json")
+                .execute();
+
+        //then
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(304);
+        assertThat(response.getContent()).isEmpty();
+
+        //when
+        Application.getInstance(DataService.class).updateCategory(USER_UID, CATEGORY_UID, Utils.randomString().substring(0, 16));
+        response = TestRequest.get("/api/v1/categories")
+                .withHeader("Authorization", ACCESS_TOKEN)
+                .withHeader("If-None-Match", etag)
+                .withContentType("application/json")
+                .execute();
+
+        //then
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getHeader("ETag")).isNotEqualTo(etag);
+    }
+
+    @Test
+    void testChanges() {
+        //when
+        TestResponse response = TestRequest.post("/api/v1/categories/changes")
+                .withHeader("Authorization", ACCESS_TOKEN)
+                .withContentType("application/json")
+                .withStringBody(JsonUtils.toJson(Map.of()))
+                .execute();
+
+        //then
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        String token = JsonUtils.toFlatMap(response.getContent()).get("token");
+        assertThat(token).isNotEmpty();
+
+        //when
+        response = TestRequest.post("/api/v1/categories/changes")
+                .withHeader("Authorization", ACCESS_TOKEN)
+                .withContentType("application/json")
+                .withStringBody(JsonUtils.toJson(Map.of("token", token)))
+                .execute();
+
+        //then
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(304);
+
+        //when
+        DataService dataService = Application.getInstance(DataService.class);
+        dataService.updateItemCount(USER_UID, CATEGORY_UID, 1);
+        response = TestRequest.post("/api/v1/categories/changes")
+                .withHeader("Authorization", ACCESS_TOKEN)
+                .withContentType("application/json")
+                .withStringBody(JsonUtils.toJson(Map.of("token", token)))
+                .execute();
+        dataService.updateItemCount(USER_UID, CATEGORY_UID, -1);
+
+        //then
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThatJson(response.getContent()).inPath("$.counts").isObject().containsKey(CATEGORY_UID);
+        assertThatJson(response.getContent()).inPath("$.token").isString().isNotEqualTo(token);
+    }
+
+    @Test
+    void testChangesWithUnknownToken() {
+        //when
+        TestResponse response = TestRequest.post("/api/v1/categories/changes")
+                .withHeader("Authorization", ACCESS_TOKEN)
+                .withContentType("application/json")
+                .withStringBody(JsonUtils.toJson(Map.of("token", "unknown")))
+                .execute();
+
+        //then
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThatJson(response.getContent()).inPath("$.counts").isObject().containsKey(CATEGORY_UID);
+        assertThatJson(response.getContent()).inPath("$.token").isString().isNotEqualTo("unknown");
+    }
+
     @Test
     void testListUnauthorized() {
         //when
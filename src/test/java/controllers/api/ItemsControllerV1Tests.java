@@ -347,4 +347,65 @@ public class ItemsControllerV1Tests {
         assertThat(response.getContent()).isEmpty();
         assertThat(Application.getInstance(DataService.class).findItem(ITEM_UID, USER_UID).getCategoryUid()).isEqualTo(TRASH_UID);
     }
+
+    @Test
+    void testMoveUpdatesItemCount() {
+        //given
+        DataService dataService = Application.getInstance(DataService.class);
+        dataService.reconcileItemCounts();
+        assertThat(dataService.findCategory(INBOX_UID, USER_UID).getItemCount()).isEqualTo(1);
+        assertThat(dataService.findCategory(TEST_UID, USER_UID).getItemCount()).isEqualTo(0);
+        Map<String, String> data = Map.of("uid", ITEM_UID, "category", TEST_UID);
+
+        //when
+        TestResponse response = TestRequest.put("/api/v1/items")
+                .withHeader("Authorization", ACCESS_TOKEN)
+                .withStringBody(JsonUtils.toJson(data))
+                .withContentType("application/json")
+                .execute();
+
+        //then
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(dataService.findCategory(INBOX_UID, USER_UID).getItemCount()).isEqualTo(0);
+        assertThat(dataService.findCategory(TEST_UID, USER_UID).getItemCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testListPaginated() {
+        //given
+        for (int i = 0; i < 3; i++) {
+            datastore.save(Item.create()
+                    .withUserUid(USER_UID)
+                    .withCategoryUid(INBOX_UID)
+                    .withUrl("https://svenkubiak.de/" + i)
+                    .withImage("foo")
+                    .withTitle("bar"));
+        }
+
+        //when
+        TestResponse response = TestRequest.get("/api/v1/items/" + INBOX_UID + "?limit=2")
+                .withHeader("Authorization", ACCESS_TOKEN)
+                .withContentType("application/json")
+                .execute();
+
+        //then
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThatJson(response.getContent()).inPath("$.items").isArray().hasSize(2);
+        assertThatJson(response.getContent()).node("next").isString().isNotEmpty();
+
+        //when
+        String next = JsonUtils.toFlatMap(response.getContent()).get("next");
+        response = TestRequest.get("/api/v1/items/" + INBOX_UID + "?limit=2&cursor=" + next)
+                .withHeader("Authorization", ACCESS_TOKEN)
+                .withContentType("application/json")
+                .execute();
+
+        //then
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThatJson(response.getContent()).inPath("$.items").isArray().hasSize(2);
+        assertThatJson(response.getContent()).node("next").isAbsent();
+    }
 }
@@ -0,0 +1,167 @@
+package controllers.api;
+
+import constants.Const;
+import controllers.TestExtension;
+import io.mangoo.core.Application;
+import io.mangoo.persistence.interfaces.Datastore;
+import io.mangoo.test.http.TestRequest;
+import io.mangoo.test.http.TestResponse;
+import io.mangoo.utils.CommonUtils;
+import io.mangoo.utils.JsonUtils;
+import models.Category;
+import models.Change;
+import models.Item;
+import models.User;
+import models.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import services.DataService;
+
+import java.util.Map;
+
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@ExtendWith({TestExtension.class})
+public class SyncControllerV2Tests {
+    private static String ACCESS_TOKEN;
+    private static String USER_UID;
+    private static String INBOX_UID;
+    private static String TRASH_UID;
+    private static String ITEM_UID;
+
+    @BeforeEach
+    public void init() {
+        Datastore datastore = Application.getInstance(Datastore.class);
+        datastore.dropCollection(Category.class);
+        datastore.dropCollection(Change.class);
+        datastore.dropCollection(Item.class);
+        datastore.dropCollection(User.class);
+
+        User user = new User("foo@bar.com");
+        user.setPassword(CommonUtils.hashArgon2("bar", user.getSalt()));
+        datastore.save(user);
+
+        Category inbox = new Category(Const.INBOX, user.getUid(), Role.INBOX);
+        Category trash = new Category(Const.TRASH, user.getUid(), Role.TRASH);
+        datastore.save(inbox);
+        datastore.save(trash);
+
+        Item item = Item.create()
+                .withUserUid(user.getUid())
+                .withCategoryUid(inbox.getUid())
+                .withUrl("https://svenkubiak.de")
+                .withImage("foo")
+                .withTitle("bar");
+        datastore.save(item);
+
+        String body = JsonUtils.toJson(Map.of("username", "foo@bar.com", "password", "bar"));
+        TestResponse response = TestRequest.post("/api/v1/users/login")
+                .withContentType("application/json")
+                .withStringBody(body)
+                .execute();
+
+        ACCESS_TOKEN = JsonUtils.toFlatMap(response.getContent()).get("accessToken");
+        USER_UID = user.getUid();
+        INBOX_UID = inbox.getUid();
+        TRASH_UID = trash.getUid();
+        ITEM_UID = item.getUid();
+    }
+
+    @Test
+    void testFullSync() {
+        //when
+        TestResponse response = TestRequest.get("/api/v2/sync")
+                .withHeader("Authorization", ACCESS_TOKEN)
+                .execute();
+
+        //then
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThatJson(response.getContent()).inPath("$.full").isEqualTo(true);
+        assertThatJson(response.getContent()).inPath("$.token").isString().isNotEmpty();
+        assertThatJson(response.getContent()).inPath("$.items[0].uid").isEqualTo(ITEM_UID);
+        assertThatJson(response.getContent()).inPath("$.categories").isArray().hasSize(2);
+    }
+
+    @Test
+    void testDeltaSync() {
+        //given
+        DataService dataService = Application.getInstance(DataService.class);
+        String token = String.valueOf(System.currentTimeMillis());
+
+        //when
+        dataService.deleteItem(ITEM_UID, USER_UID);
+        TestResponse response = TestRequest.get("/api/v2/sync?token=" + token)
+                .withHeader("Authorization", ACCESS_TOKEN)
+                .execute();
+
+        //then
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThatJson(response.getContent()).inPath("$.full").isEqualTo(false);
+        assertThatJson(response.getContent()).inPath("$.items").isArray().hasSize(1);
+        assertThatJson(response.getContent()).inPath("$.items[0].category").isEqualTo(TRASH_UID);
+        assertThatJson(response.getContent()).inPath("$.deleted").isArray().isEmpty();
+
+        //when
+        dataService.emptyTrash(USER_UID);
+        response = TestRequest.get("/api/v2/sync?token=" + token)
+                .withHeader("Authorization", ACCESS_TOKEN)
+                .execute();
+
+        //then
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThatJson(response.getContent()).inPath("$.items").isArray().isEmpty();
+        assertThatJson(response.getContent()).inPath("$.deleted").isArray().containsExactly(ITEM_UID);
+    }
+
+    @Test
+    void testFullSyncIsPaged() {
+        //given
+        Datastore datastore = Application.getInstance(Datastore.class);
+        for (int i = 0; i < 500; i++) {
+            datastore.save(Item.create()
+                    .withUserUid(USER_UID)
+                    .withCategoryUid(INBOX_UID)
+                    .withUrl("https://svenkubiak.de/" + i)
+                    .withImage("foo")
+                    .withTitle("bar"));
+        }
+
+        //when
+        TestResponse response = TestRequest.get("/api/v2/sync")
+                .withHeader("Authorization", ACCESS_TOKEN)
+                .execute();
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThatJson(response.getContent()).inPath("$.items").isArray().hasSize(500);
+        assertThatJson(response.getContent()).node("next").isString().isNotEmpty();
+
+        //when
+        var page = JsonUtils.toFlatMap(response.getContent());
+        response = TestRequest.get("/api/v2/sync?cursor=" + page.get("next"))
+                .withHeader("Authorization", ACCESS_TOKEN)
+                .execute();
+
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThatJson(response.getContent()).inPath("$.items").isArray().hasSize(1);
+        assertThatJson(response.getContent()).inPath("$.token").isEqualTo(page.get("token"));
+        assertThatJson(response.getContent()).node("next").isAbsent();
+    }
+
+    @Test
+    void testSyncUnauthorized() {
+        //when
+        TestResponse response = TestRequest.get("/api/v2/sync")
+                .execute();
+
+        //then
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(401);
+    }
+}
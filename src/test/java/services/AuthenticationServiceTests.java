@@ -0,0 +1,91 @@
+package services;
+
+import constants.Const;
+import controllers.TestExtension;
+import io.mangoo.core.Application;
+import io.mangoo.exceptions.MangooJwtException;
+import io.mangoo.persistence.interfaces.Datastore;
+import models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.text.ParseException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith({TestExtension.class})
+public class AuthenticationServiceTests {
+    private static AuthenticationService authenticationService;
+    private static String USER_UID;
+
+    @BeforeEach
+    public void init() {
+        var datastore = Application.getInstance(Datastore.class);
+        authenticationService = Application.getInstance(AuthenticationService.class);
+        datastore.dropCollection(User.class);
+
+        User user = new User("authentication@bar.com");
+        datastore.save(user);
+        USER_UID = user.getUid();
+    }
+
+    @Test
+    void testParseAccessTokenIsCached() throws MangooJwtException {
+        //given
+        String accessToken = authenticationService.getRefreshAndAccessToken(USER_UID).get(Const.ACCESS_TOKEN);
+
+        //when
+        var first = authenticationService.parseAccessToken(accessToken);
+        var second = authenticationService.parseAccessToken(accessToken);
+
+        //then
+        assertThat(first.getSubject()).isEqualTo(USER_UID);
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void testParseAccessTokenRejectsTamperedToken() throws MangooJwtException {
+        //given
+        String accessToken = authenticationService.getRefreshAndAccessToken(USER_UID).get(Const.ACCESS_TOKEN);
+        authenticationService.parseAccessToken(accessToken);
+
+        //when
+        String tampered = accessToken.substring(0, accessToken.length() - 2) + "xx";
+
+        //then
+        assertThatThrownBy(() -> authenticationService.parseAccessToken(tampered))
+                .isInstanceOf(MangooJwtException.class);
+    }
+
+    @Test
+    void testRotateRevokesPreviousAccessToken() throws MangooJwtException, ParseException {
+        //given
+        var tokens = authenticationService.getRefreshAndAccessToken(USER_UID);
+        String atid = authenticationService.parseAccessToken(tokens.get(Const.ACCESS_TOKEN)).getJWTID();
+
+        //when
+        var rotated = authenticationService.rotateRefreshToken(authenticationService.parseRefreshToken(tokens.get(Const.REFRESH_TOKEN)));
+
+        //then
+        assertThat(rotated).isPresent();
+        assertThat(authenticationService.isTokenBlacklisted(atid)).isTrue();
+    }
+
+    @Test
+    void testRefreshTokenReuseRevokesFamily() throws MangooJwtException, ParseException {
+        //given
+        String first = authenticationService.getRefreshAndAccessToken(USER_UID).get(Const.REFRESH_TOKEN);
+        String second = authenticationService.rotateRefreshToken(authenticationService.parseRefreshToken(first))
+                .orElseThrow()
+                .get(Const.REFRESH_TOKEN);
+
+        //when
+        var reused = authenticationService.rotateRefreshToken(authenticationService.parseRefreshToken(first));
+
+        //then
+        assertThat(reused).isEmpty();
+        assertThat(authenticationService.rotateRefreshToken(authenticationService.parseRefreshToken(second))).isEmpty();
+    }
+}
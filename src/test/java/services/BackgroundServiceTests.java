@@ -0,0 +1,48 @@
+package services;
+
+import controllers.TestExtension;
+import io.mangoo.core.Application;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import utils.Utils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@ExtendWith({TestExtension.class})
+public class BackgroundServiceTests {
+
+    @Test
+    void testUserLimit() {
+        //given
+        BackgroundService backgroundService = Application.getInstance(BackgroundService.class);
+        String userUid = Utils.randomString();
+        CountDownLatch latch = new CountDownLatch(1);
+        Runnable task = () -> {
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        long rejected = backgroundService.metrics().get("rejected");
+
+        //when
+        boolean first = backgroundService.submit(userUid, task);
+        boolean second = backgroundService.submit(userUid, task);
+        boolean third = backgroundService.submit(userUid, task);
+        boolean other = backgroundService.submit(Utils.randomString(), () -> {});
+        latch.countDown();
+
+        //then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(other).isTrue();
+        assertThat(backgroundService.metrics().get("rejected")).isEqualTo(rejected + 1);
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> assertThat(backgroundService.submit(userUid, () -> {})).isTrue());
+    }
+}
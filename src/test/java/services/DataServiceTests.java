@@ -0,0 +1,143 @@
+package services;
+
+import constants.Collections;
+import constants.Const;
+import controllers.TestExtension;
+import io.mangoo.core.Application;
+import io.mangoo.persistence.interfaces.Datastore;
+import models.Category;
+import models.Item;
+import models.User;
+import models.enums.Role;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gte;
+import static com.mongodb.client.model.Filters.in;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@ExtendWith({TestExtension.class})
+public class DataServiceTests {
+    private static Datastore datastore;
+    private static DataService dataService;
+    private static String USER_UID;
+    private static String INBOX_UID;
+
+    @BeforeEach
+    public void init() {
+        datastore = Application.getInstance(Datastore.class);
+        dataService = Application.getInstance(DataService.class);
+        datastore.dropCollection(Category.class);
+        datastore.dropCollection(Item.class);
+        datastore.dropCollection(User.class);
+
+        User user = new User("data@bar.com");
+        datastore.save(user);
+
+        Category inbox = new Category(Const.INBOX, user.getUid(), Role.INBOX);
+        datastore.save(inbox);
+
+        USER_UID = user.getUid();
+        INBOX_UID = inbox.getUid();
+    }
+
+    @Test
+    void testFindItemsCommandCountIsConstant() {
+        //given
+        addItems(1);
+        long single = countCommands(() -> dataService.findItems(USER_UID, INBOX_UID));
+
+        //when
+        addItems(49);
+        long many = countCommands(() -> dataService.findItems(USER_UID, INBOX_UID));
+
+        //then
+        assertThat(dataService.findItems(USER_UID, INBOX_UID).orElseThrow().size()).isEqualTo(50);
+        assertThat(many).isEqualTo(single);
+    }
+
+    @Test
+    void testUserInfoIsCachedUntilSaved() {
+        //given
+        long uncached = countCommands(() -> dataService.userExists(USER_UID));
+
+        //when
+        long cached = countCommands(() -> dataService.userExists(USER_UID));
+
+        //then
+        assertThat(uncached).isEqualTo(1L);
+        assertThat(cached).isZero();
+
+        //when
+        dataService.updatePepper(USER_UID);
+
+        //then
+        assertThat(dataService.findUserInfo(USER_UID).orElseThrow().pepper())
+                .isEqualTo(dataService.findUserByUid(USER_UID).getPepper());
+    }
+
+    @Test
+    void testUpgradeInvalidatesETagsOncePerRelease() {
+        //given
+        dataService.upgrade();
+        long version = datastore.find(Category.class, eq(Const.UID, INBOX_UID)).getVersion();
+
+        //when
+        dataService.upgrade();
+
+        //then
+        assertThat(datastore.find(Category.class, eq(Const.UID, INBOX_UID)).getVersion()).isEqualTo(version);
+    }
+
+    @Test
+    void testReconcileRepairsDriftedCount() {
+        //given
+        addItems(3);
+
+        //when
+        dataService.reconcileItemCounts();
+        long version = datastore.find(Category.class, eq(Const.UID, INBOX_UID)).getVersion();
+        dataService.reconcileItemCounts();
+
+        //then
+        assertThat(dataService.findCategory(INBOX_UID, USER_UID).getItemCount()).isEqualTo(3L);
+        assertThat(datastore.find(Category.class, eq(Const.UID, INBOX_UID)).getVersion()).isEqualTo(version);
+    }
+
+    private void addItems(int count) {
+        for (int i = 0; i < count; i++) {
+            datastore.save(Item.create()
+                    .withUserUid(USER_UID)
+                    .withCategoryUid(INBOX_UID)
+                    .withUrl("https://svenkubiak.de/" + i)
+                    .withImage("foo")
+                    .withTitle("bar"));
+        }
+    }
+
+    private long countCommands(Runnable runnable) {
+        //The profiler records the commands of the injected client, background work on other collections is left out
+        var database = datastore.getMongoDatabase();
+        var since = new Date();
+        database.runCommand(new Document("profile", 2));
+        try {
+            runnable.run();
+        } finally {
+            database.runCommand(new Document("profile", 0));
+        }
+
+        List<String> namespaces = Stream.of(Collections.CATEGORIES, Collections.ITEMS, Collections.USERS, Const.FILEDPAPERS_FILES)
+                .map(collection -> database.getName() + "." + collection)
+                .toList();
+
+        return database.getCollection("system.profile").countDocuments(and(gte("ts", since), in("ns", namespaces)));
+    }
+}
@@ -0,0 +1,126 @@
+package services;
+
+import controllers.TestExtension;
+import io.mangoo.core.Application;
+import io.mangoo.persistence.interfaces.Datastore;
+import models.Category;
+import models.Item;
+import models.Job;
+import models.User;
+import models.enums.JobType;
+import models.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import utils.MediaInfo;
+import utils.Utils;
+import utils.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith({TestExtension.class})
+public class ExportServiceTests {
+    private static Datastore datastore;
+    private static ExportService exportService;
+    private static String USER_UID;
+
+    @BeforeEach
+    public void init() {
+        datastore = Application.getInstance(Datastore.class);
+        exportService = Application.getInstance(ExportService.class);
+        datastore.dropCollection(Category.class);
+        datastore.dropCollection(Item.class);
+        datastore.dropCollection(User.class);
+
+        User user = new User("export@bar.com");
+        datastore.save(user);
+        USER_UID = user.getUid();
+    }
+
+    @Test
+    void testHtml() throws IOException {
+        //given
+        var work = new Category("Work", USER_UID, Role.CUSTOM);
+        var empty = new Category("Empty", USER_UID, Role.CUSTOM);
+        datastore.save(work);
+        datastore.save(empty);
+        datastore.save(item(work, "https://svenkubiak.de", "Sven & Co"));
+        datastore.save(item(work, "https://mangoo.io", "mangoo I/O"));
+        datastore.save(item(new Category("Deleted", USER_UID, Role.CUSTOM), "https://orphan.io", "Orphan"));
+        var output = new ByteArrayOutputStream();
+
+        //when
+        exportService.html(USER_UID, output);
+
+        //then
+        String html = output.toString(StandardCharsets.UTF_8);
+        assertThat(html).contains("<H3>Work</H3>", "<H3>Empty</H3>", "Sven &amp; Co", "https://mangoo.io");
+        assertThat(html).doesNotContain("https://orphan.io");
+
+        //when
+        List<String> folders = new ArrayList<>();
+        IOUtils.importItems(new ByteArrayInputStream(output.toByteArray()), (folder, bookmark) -> folders.add(folder));
+
+        //then
+        assertThat(folders).containsExactly("Work", "Work");
+    }
+
+    @Test
+    void testRun() throws IOException {
+        //given
+        var category = new Category("Work", USER_UID, Role.CUSTOM);
+        datastore.save(category);
+        var item = item(category, "https://svenkubiak.de", "Sven");
+        byte[] image = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 9, 8, 7};
+        item.setMediaUid(Application.getInstance(MediaService.class).store(image, USER_UID));
+        datastore.save(item);
+
+        //when
+        exportService.run(new Job(JobType.EXPORT, USER_UID, Map.of()));
+
+        //then
+        MediaInfo info = exportService.info(USER_UID).orElseThrow();
+        byte[] data = exportService.read(USER_UID, info.uid(), 0, (int) info.length()).orElseThrow();
+        assertThat(info.hash()).isEqualTo(Utils.sha256(data));
+
+        Map<String, byte[]> entries = new HashMap<>();
+        try (var zip = new ZipInputStream(new ByteArrayInputStream(data))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        assertThat(entries).containsKeys("bookmarks.html", "items.jsonl", "media/" + item.getMediaUid());
+        assertThat(entries.get("media/" + item.getMediaUid())).isEqualTo(image);
+        assertThat(new String(entries.get("items.jsonl"), StandardCharsets.UTF_8)).contains("https://svenkubiak.de", "Work");
+
+        //when
+        exportService.delete(USER_UID);
+
+        //then
+        assertThat(exportService.info(USER_UID)).isEmpty();
+    }
+
+    private Item item(Category category, String url, String title) {
+        var item = Item.create()
+                .withUserUid(USER_UID)
+                .withCategoryUid(category.getUid())
+                .withUrl(url)
+                .withTitle(title);
+        item.setTimestamp(LocalDateTime.now());
+
+        return item;
+    }
+}
@@ -0,0 +1,55 @@
+package services;
+
+import controllers.TestExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith({TestExtension.class})
+public class HashingServiceTests {
+
+    @Test
+    void testVerifyThrottlesFailedAttempts() {
+        //given
+        var hashingService = new HashingService(4, 2, 3, 15, "");
+
+        //when
+        hashingService.verify("foo@bar.com", null, () -> false);
+        hashingService.verify("foo@bar.com", null, () -> false);
+
+        //then
+        assertThat(hashingService.verify("foo@bar.com", null, () -> true)).isEmpty();
+        assertThat(hashingService.verify("bar@bar.com", null, () -> true)).contains(true);
+        assertThat(hashingService.metrics().get("throttled")).isEqualTo(1L);
+    }
+
+    @Test
+    void testVerifyThrottlesIp() {
+        //given
+        var hashingService = new HashingService(4, 10, 3, 15, "");
+
+        //when
+        hashingService.verify("a@bar.com", "10.0.0.1", () -> false);
+        hashingService.verify("b@bar.com", "10.0.0.1", () -> false);
+        hashingService.verify("c@bar.com", "10.0.0.1", () -> false);
+
+        //then
+        assertThat(hashingService.verify("d@bar.com", "10.0.0.1", () -> true)).isEmpty();
+        assertThat(hashingService.verify("d@bar.com", "10.0.0.2", () -> true)).contains(true);
+    }
+
+    @Test
+    void testSuccessResetsAccount() {
+        //given
+        var hashingService = new HashingService(4, 2, 100, 15, "");
+        hashingService.verify("foo@bar.com", null, () -> false);
+
+        //when
+        hashingService.verify("foo@bar.com", null, () -> true);
+        hashingService.verify("foo@bar.com", null, () -> false);
+
+        //then
+        assertThat(hashingService.verify("foo@bar.com", null, () -> true)).contains(true);
+    }
+}
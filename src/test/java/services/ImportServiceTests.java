@@ -0,0 +1,110 @@
+package services;
+
+import constants.Const;
+import controllers.TestExtension;
+import io.mangoo.core.Application;
+import io.mangoo.persistence.interfaces.Datastore;
+import models.Category;
+import models.Item;
+import models.User;
+import models.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import utils.io.Leaf;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+@ExtendWith({TestExtension.class})
+public class ImportServiceTests {
+    private static Datastore datastore;
+    private static ImportService importService;
+    private static String USER_UID;
+
+    @BeforeEach
+    public void init() {
+        datastore = Application.getInstance(Datastore.class);
+        importService = Application.getInstance(ImportService.class);
+        datastore.dropCollection(Category.class);
+        datastore.dropCollection(Item.class);
+        datastore.dropCollection(User.class);
+
+        User user = new User("import@bar.com");
+        datastore.save(user);
+        datastore.save(new Category(Const.INBOX, user.getUid(), Role.INBOX));
+
+        USER_UID = user.getUid();
+    }
+
+    @Test
+    void testImportItems() {
+        //given
+        List<Leaf> leafs = List.of(folder("My Folder!", "https://svenkubiak.de", "https://mangoo.io", "no-url"));
+
+        //when
+        long imported = importService.importItems(USER_UID, leafs);
+
+        //then
+        Category category = datastore.find(Category.class, and(eq(Const.USER_UID, USER_UID), eq(Const.NAME, "My-Folder")));
+        assertThat(imported).isEqualTo(2L);
+        assertThat(category).isNotNull();
+        assertThat(category.getItemCount()).isEqualTo(2L);
+        assertThat(datastore.query(Item.class).countDocuments(eq(Const.CATEGORY_UID, category.getUid()))).isEqualTo(2L);
+    }
+
+    @Test
+    void testImportReusesExistingCategories() {
+        //given
+        importService.importItems(USER_UID, List.of(folder("inbox", "https://svenkubiak.de")));
+
+        //when
+        importService.importItems(USER_UID, List.of(folder("Inbox", "https://mangoo.io")));
+
+        //then
+        Category inbox = datastore.find(Category.class, and(eq(Const.USER_UID, USER_UID), eq(Const.NAME, Const.INBOX)));
+        assertThat(datastore.query(Category.class).countDocuments(eq(Const.USER_UID, USER_UID))).isEqualTo(1L);
+        assertThat(inbox.getItemCount()).isEqualTo(2L);
+    }
+
+    @Test
+    void testRejectedImportIsRolledBack() {
+        //given
+        var html = new StringBuilder("<DL><DT><H3>Rejected</H3><DL>");
+        for (int i = 0; i < 600; i++) {
+            html.append("<DT><A HREF=\"https://svenkubiak.de/").append(i).append("\">").append(i).append("</A>");
+        }
+        html.append("<script>alert(1)</script></DL></DL>");
+        var input = new ByteArrayInputStream(html.toString().getBytes(StandardCharsets.UTF_8));
+
+        //when
+        assertThatThrownBy(() -> importService.importItems(USER_UID, input)).isInstanceOf(SecurityException.class);
+
+        //then
+        assertThat(datastore.query(Item.class).countDocuments(eq(Const.USER_UID, USER_UID))).isEqualTo(0L);
+        assertThat(datastore.query(Category.class).countDocuments(eq(Const.USER_UID, USER_UID))).isEqualTo(1L);
+    }
+
+    private static Leaf folder(String title, String... urls) {
+        var folder = new Leaf();
+        folder.setFolder(true);
+        folder.setTitle(title);
+
+        for (String url : urls) {
+            var bookmark = new Leaf();
+            bookmark.setUrl(url);
+            bookmark.setTitle(url);
+            bookmark.setAddDate(Instant.now());
+            folder.addChild(bookmark);
+        }
+
+        return folder;
+    }
+}
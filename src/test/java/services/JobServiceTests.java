@@ -0,0 +1,98 @@
+package services;
+
+import constants.Const;
+import controllers.TestExtension;
+import io.mangoo.core.Application;
+import io.mangoo.persistence.interfaces.Datastore;
+import models.Job;
+import models.enums.JobStatus;
+import models.enums.JobType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import utils.Utils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.mongodb.client.model.Filters.eq;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@ExtendWith({TestExtension.class})
+public class JobServiceTests {
+
+    @Test
+    void testEnqueuedJobIsProcessed() {
+        //given
+        Datastore datastore = Application.getInstance(Datastore.class);
+        JobService jobService = Application.getInstance(JobService.class);
+
+        //when
+        String uid = jobService.enqueue(JobType.ENRICH, Utils.randomString(), Map.of(Const.ITEM_UID, Utils.randomString()));
+
+        //then
+        assertThat(uid).isNotBlank();
+        await().atMost(30, TimeUnit.SECONDS).untilAsserted(() -> assertThat(datastore.find(Job.class, eq(Const.UID, uid))).isNull());
+    }
+
+    @Test
+    void testOnlyOneJobPerKey() {
+        //given
+        Datastore datastore = Application.getInstance(Datastore.class);
+        JobService jobService = Application.getInstance(JobService.class);
+        String userUid = Utils.randomString();
+        String key = JobType.RESYNC.name() + ":" + userUid;
+
+        var running = new Job(JobType.RESYNC, userUid, Map.of());
+        running.setKey(key);
+        running.setStatus(JobStatus.RUNNING);
+        running.setLockedUntil(LocalDateTime.now().plusHours(1));
+        datastore.save(running);
+
+        //when
+        Optional<String> uid = jobService.enqueue(JobType.RESYNC, userUid, Map.of(), key);
+
+        //then
+        assertThat(uid.isPresent()).isFalse();
+        assertThat(jobService.findByKey(key).orElseThrow().getUid()).isEqualTo(running.getUid());
+
+        //when
+        jobService.complete(running);
+
+        //then
+        assertThat(jobService.findByKey(key).isPresent()).isFalse();
+    }
+
+    @Test
+    void testLeaseIsRequiredToRenewAndComplete() {
+        //given
+        Datastore datastore = Application.getInstance(Datastore.class);
+        JobService jobService = Application.getInstance(JobService.class);
+
+        var job = new Job(JobType.RESYNC, Utils.randomString(), Map.of());
+        job.setStatus(JobStatus.RUNNING);
+        job.setOwner(Utils.randomString());
+        job.setLockedUntil(LocalDateTime.now().plusHours(1));
+        datastore.save(job);
+
+        var stale = datastore.find(Job.class, eq(Const.UID, job.getUid()));
+        stale.setOwner(Utils.randomString());
+
+        //when
+        jobService.complete(stale);
+
+        //then
+        assertThat(jobService.renew(stale)).isFalse();
+        assertThat(datastore.find(Job.class, eq(Const.UID, job.getUid()))).isNotNull();
+
+        //when
+        boolean renewed = jobService.renew(job);
+        jobService.complete(job);
+
+        //then
+        assertThat(renewed).isTrue();
+        assertThat(datastore.find(Job.class, eq(Const.UID, job.getUid()))).isNull();
+    }
+}
@@ -0,0 +1,210 @@
+package services;
+
+import com.sun.net.httpserver.HttpServer;
+import constants.Const;
+import controllers.TestExtension;
+import io.mangoo.core.Application;
+import io.mangoo.core.Config;
+import io.mangoo.persistence.interfaces.Datastore;
+import models.Item;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import utils.Utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static com.mongodb.client.model.Filters.eq;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@ExtendWith({TestExtension.class})
+public class MediaServiceTests {
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    @Test
+    void testRetrieveIsCachedAndInvalidated() {
+        //given
+        MediaService mediaService = Application.getInstance(MediaService.class);
+        String uid = mediaService.store(Utils.randomString().getBytes(StandardCharsets.UTF_8), Utils.randomString());
+        long hits = mediaService.metrics().get("hits");
+
+        //when
+        mediaService.retrieve(uid);
+        mediaService.retrieve(uid);
+
+        //then
+        assertThat(mediaService.metrics().get("hits")).isEqualTo(hits + 1);
+
+        //when
+        mediaService.delete(uid);
+
+        //then
+        assertThat(mediaService.retrieve(uid).isPresent()).isFalse();
+    }
+
+    @Test
+    void testLargeObjectsAreNotCached() {
+        //given
+        MediaService mediaService = Application.getInstance(MediaService.class);
+        String uid = mediaService.store(new byte[3 * 1024 * 1024], Utils.randomString());
+        long hits = mediaService.metrics().get("hits");
+
+        //when
+        mediaService.retrieve(uid);
+        mediaService.retrieve(uid);
+
+        //then
+        assertThat(mediaService.retrieve(uid).orElseThrow().length).isEqualTo(3 * 1024 * 1024);
+        assertThat(mediaService.metrics().get("hits")).isEqualTo(hits);
+    }
+
+    @Test
+    void testIdenticalContentIsStoredOnce() {
+        //given
+        MediaService mediaService = Application.getInstance(MediaService.class);
+        byte[] data = Utils.randomString().getBytes(StandardCharsets.UTF_8);
+
+        //when
+        String first = mediaService.store(data, Utils.randomString());
+        String second = mediaService.store(data, Utils.randomString());
+
+        //then
+        assertThat(second).isEqualTo(first);
+
+        //when
+        mediaService.delete(first);
+
+        //then
+        assertThat(mediaService.retrieve(second).isPresent()).isTrue();
+
+        //when
+        mediaService.delete(second);
+
+        //then
+        assertThat(mediaService.exists(first)).isFalse();
+    }
+
+    @Test
+    void testItemsShareIdenticalContent() {
+        //given
+        MediaService mediaService = Application.getInstance(MediaService.class);
+        Datastore datastore = Application.getInstance(Datastore.class);
+        String userUid = Utils.randomString();
+        byte[] data = Utils.randomString().getBytes(StandardCharsets.UTF_8);
+        var first = Item.create().withUserUid(userUid).withCategoryUid(Utils.randomString()).withUrl("https://svenkubiak.de");
+        var second = Item.create().withUserUid(userUid).withCategoryUid(Utils.randomString()).withUrl("https://mangoo.io");
+
+        //when
+        first.setMediaUid(mediaService.store(data, userUid));
+        second.setMediaUid(mediaService.store(data, userUid));
+        datastore.save(first);
+        datastore.save(second);
+
+        //then
+        assertThat(second.getMediaUid()).isEqualTo(first.getMediaUid());
+        assertThat(datastore.query(Item.class).countDocuments(eq(Const.MEDIA_UID, first.getMediaUid()))).isEqualTo(2L);
+
+        //when
+        mediaService.delete(first.getMediaUid());
+
+        //then
+        assertThat(mediaService.exists(second.getMediaUid())).isTrue();
+    }
+
+    @Test
+    void testFetchAndStoreRejectsNonImage() throws IOException {
+        //given
+        MediaService mediaService = Application.getInstance(MediaService.class);
+        String userUid = Utils.randomString();
+        HttpServer server = serve("<html><body>not an image</body></html>".getBytes(StandardCharsets.UTF_8));
+
+        //when
+        Optional<String> uid;
+        try {
+            uid = mediaService.fetchAndStore(url(server), userUid);
+        } finally {
+            server.stop(0);
+        }
+
+        //then
+        assertThat(uid.isPresent()).isFalse();
+        assertThat(countFiles(userUid)).isZero();
+    }
+
+    @Test
+    void testFetchAndStoreAbortsPastLimit() throws IOException {
+        //given
+        MediaService mediaService = Application.getInstance(MediaService.class);
+        String userUid = Utils.randomString();
+        int limit = Application.getInstance(Config.class).getInt("application.media.fetch.limit") * 1024 * 1024;
+        byte[] body = new byte[limit + 1024];
+        System.arraycopy(PNG, 0, body, 0, PNG.length);
+        HttpServer server = serve(body);
+
+        //when
+        Optional<String> uid;
+        try {
+            uid = mediaService.fetchAndStore(url(server), userUid);
+        } finally {
+            server.stop(0);
+        }
+
+        //then
+        assertThat(uid.isPresent()).isFalse();
+        assertThat(countFiles(userUid)).isZero();
+    }
+
+    @Test
+    void testFetchAndStoreStoresImage() throws IOException {
+        //given
+        MediaService mediaService = Application.getInstance(MediaService.class);
+        String userUid = Utils.randomString();
+        byte[] random = Utils.randomString().getBytes(StandardCharsets.UTF_8);
+        byte[] body = Arrays.copyOf(PNG, PNG.length + random.length);
+        System.arraycopy(random, 0, body, PNG.length, random.length);
+        HttpServer server = serve(body);
+
+        //when
+        Optional<String> uid;
+        try {
+            uid = mediaService.fetchAndStore(url(server), userUid);
+        } finally {
+            server.stop(0);
+        }
+
+        //then
+        assertThat(uid.isPresent()).isTrue();
+        assertThat(mediaService.retrieve(uid.get()).orElseThrow()).isEqualTo(body);
+    }
+
+    private static HttpServer serve(byte[] body) throws IOException {
+        //Responses are chunked, so only the byte cap and not a declared length can stop an oversized body
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            } catch (IOException e) {
+                //The client may hang up once it has read enough
+            }
+        });
+        server.start();
+
+        return server;
+    }
+
+    private static String url(HttpServer server) {
+        return "http://" + server.getAddress().getAddress().getHostAddress() + ":" + server.getAddress().getPort() + "/image";
+    }
+
+    private static long countFiles(String userUid) {
+        return Application.getInstance(Datastore.class)
+                .query(Const.FILEDPAPERS_FILES)
+                .countDocuments(eq(Const.METADATA_USER_UID, userUid));
+    }
+}
@@ -0,0 +1,56 @@
+package services;
+
+import controllers.TestExtension;
+import io.mangoo.core.Application;
+import io.mangoo.persistence.interfaces.Datastore;
+import models.Preview;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import utils.Utils;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@ExtendWith({TestExtension.class})
+public class PreviewServiceTests {
+
+    @Test
+    void testKeyIsNormalized() {
+        assertThat(PreviewService.key("HTTPS://Example.com:443/foo#bar", "en"))
+                .isEqualTo(PreviewService.key("https://example.com/foo", "en"));
+        assertThat(PreviewService.key("https://example.com/foo", "en"))
+                .isNotEqualTo(PreviewService.key("https://example.com/foo", "de"));
+    }
+
+    @Test
+    void testFetchUsesStoredPreview() {
+        //given
+        Datastore datastore = Application.getInstance(Datastore.class);
+        PreviewService previewService = Application.getInstance(PreviewService.class);
+        String path = Utils.randomString();
+
+        Preview preview = new Preview();
+        preview.setKey(PreviewService.key("https://example.com/" + path, "en"));
+        preview.setTitle("stored");
+        preview.setDescription("description");
+        preview.setUrl("https://example.com/" + path);
+        preview.setDomain("example.com");
+        preview.setImage("https://example.com/image.png");
+        preview.setTimestamp(LocalDateTime.now());
+        datastore.save(preview);
+
+        long databaseHits = previewService.metrics().get("databaseHits");
+        long memoryHits = previewService.metrics().get("memoryHits");
+
+        //when
+        var first = previewService.fetch("https://EXAMPLE.com/" + path + "#fragment", "en");
+        var second = previewService.fetch("https://example.com/" + path, "en");
+
+        //then
+        assertThat(first.title()).isEqualTo("stored");
+        assertThat(second.title()).isEqualTo("stored");
+        assertThat(previewService.metrics().get("databaseHits")).isEqualTo(databaseHits + 1);
+        assertThat(previewService.metrics().get("memoryHits")).isEqualTo(memoryHits + 1);
+    }
+}
@@ -0,0 +1,77 @@
+package services;
+
+import constants.Collections;
+import constants.Const;
+import controllers.TestExtension;
+import io.mangoo.core.Application;
+import io.mangoo.persistence.interfaces.Datastore;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import utils.Utils;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static com.mongodb.client.model.Filters.eq;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith({TestExtension.class})
+public class RevocationServiceTests {
+    private static Datastore datastore;
+    private static RevocationService revocationService;
+
+    @BeforeEach
+    public void init() {
+        datastore = Application.getInstance(Datastore.class);
+        revocationService = Application.getInstance(RevocationService.class);
+        revocationService.indexify();
+        revocationService.start();
+    }
+
+    @Test
+    void testRevoke() {
+        //given
+        String id = Utils.randomString();
+
+        //when
+        revocationService.revoke(id, Instant.now().plusSeconds(60));
+
+        //then
+        assertThat(revocationService.isRevoked(id)).isTrue();
+        assertThat(datastore.getMongoDatabase()
+                .getCollection(Collections.REVOCATIONS)
+                .find(eq(Const.UID, id))
+                .first()).isNotNull();
+    }
+
+    @Test
+    void testExpiredRevocationIsIgnored() {
+        //given
+        String id = Utils.randomString();
+
+        //when
+        revocationService.revoke(id, Instant.now().minusSeconds(1));
+
+        //then
+        assertThat(revocationService.isRevoked(id)).isFalse();
+    }
+
+    @Test
+    void testRevocationFromOtherNode() throws InterruptedException {
+        //given
+        String id = Utils.randomString();
+
+        //when
+        datastore.getMongoDatabase()
+                .getCollection(Collections.REVOCATIONS_FEED)
+                .insertOne(new Document(Const.UID, id).append(Const.EXPIRES, Date.from(Instant.now().plusSeconds(60))));
+
+        //then
+        for (int i = 0; i < 50 && !revocationService.isRevoked(id); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(revocationService.isRevoked(id)).isTrue();
+    }
+}
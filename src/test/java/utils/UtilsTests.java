@@ -4,6 +4,8 @@ import io.mangoo.test.TestRunner;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import java.nio.charset.StandardCharsets;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 
@@ -57,4 +59,19 @@ public class UtilsTests {
         //then
         assertThat(valid, equalTo(false));
     }
+
+    @Test
+    public void testContentType() {
+        //given
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+        byte[] html = "<!DOCTYPE html><html></html>".getBytes(StandardCharsets.UTF_8);
+
+        //when
+        String image = Utils.contentType(jpeg);
+        String other = Utils.contentType(html);
+
+        //then
+        assertThat(image, equalTo("image/jpeg"));
+        assertThat(other, equalTo("application/octet-stream"));
+    }
 }
@@ -0,0 +1,107 @@
+package utils.io;
+
+import io.mangoo.test.TestRunner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import utils.Utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith({TestRunner.class})
+public class DiskCacheTests {
+
+    @Test
+    void testPutAndGet(@TempDir Path directory) {
+        //given
+        DiskCache diskCache = new DiskCache(directory, 1024);
+        String uid = Utils.randomString();
+
+        //when
+        diskCache.put(uid, new byte[] {1, 2, 3});
+
+        //then
+        assertThat(diskCache.get(uid).orElseThrow()).isEqualTo(new byte[] {1, 2, 3});
+        assertThat(diskCache.metrics().get("diskHits")).isEqualTo(1L);
+    }
+
+    @Test
+    void testGetRange(@TempDir Path directory) {
+        //given
+        DiskCache diskCache = new DiskCache(directory, 1024);
+        String uid = Utils.randomString();
+
+        //when
+        diskCache.put(uid, new byte[] {1, 2, 3, 4, 5});
+
+        //then
+        assertThat(diskCache.get(uid, 1, 3).orElseThrow()).isEqualTo(new byte[] {2, 3, 4});
+        assertThat(diskCache.get(uid, 3, 3).isPresent()).isFalse();
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvicted(@TempDir Path directory) {
+        //given
+        DiskCache diskCache = new DiskCache(directory, 200);
+        String first = Utils.randomString();
+        String second = Utils.randomString();
+        String third = Utils.randomString();
+
+        //when
+        diskCache.put(first, new byte[100]);
+        diskCache.put(second, new byte[100]);
+        diskCache.get(first);
+        diskCache.put(third, new byte[100]);
+
+        //then
+        assertThat(diskCache.get(first).isPresent()).isTrue();
+        assertThat(diskCache.get(second).isPresent()).isFalse();
+        assertThat(diskCache.get(third).isPresent()).isTrue();
+        assertThat(diskCache.metrics().get("diskBytes")).isEqualTo(200L);
+    }
+
+    @Test
+    void testCorruptEntriesAreRemovedOnStartup(@TempDir Path directory) throws IOException {
+        //given
+        DiskCache diskCache = new DiskCache(directory, 1024);
+        String intact = Utils.randomString();
+        String corrupt = Utils.randomString();
+        diskCache.put(intact, new byte[] {1, 2, 3});
+        diskCache.put(corrupt, new byte[] {4, 5, 6});
+        diskCache.close();
+
+        //when
+        Files.write(directory.resolve(corrupt + ".bin"), new byte[] {7, 8, 9});
+        Files.write(directory.resolve("orphan.tmp"), new byte[] {1});
+        DiskCache reloaded = new DiskCache(directory, 1024);
+
+        //then
+        assertThat(reloaded.get(intact).orElseThrow()).isEqualTo(new byte[] {1, 2, 3});
+        assertThat(reloaded.get(corrupt).isPresent()).isFalse();
+        assertThat(Files.exists(directory.resolve(corrupt + ".bin"))).isFalse();
+        assertThat(Files.exists(directory.resolve("orphan.tmp"))).isFalse();
+    }
+
+    @Test
+    void testJournalIsReplayedWithoutClose(@TempDir Path directory) {
+        //given
+        DiskCache diskCache = new DiskCache(directory, 1024);
+        String kept = Utils.randomString();
+        String removed = Utils.randomString();
+        diskCache.put(kept, new byte[] {1, 2, 3});
+        diskCache.put(removed, new byte[] {4, 5, 6});
+        diskCache.invalidate(removed);
+
+        //when
+        DiskCache reloaded = new DiskCache(directory, 1024);
+
+        //then
+        assertThat(reloaded.get(kept).orElseThrow()).isEqualTo(new byte[] {1, 2, 3});
+        assertThat(reloaded.get(removed).isPresent()).isFalse();
+        assertThat(reloaded.metrics().get("diskBytes")).isEqualTo(3L);
+    }
+}
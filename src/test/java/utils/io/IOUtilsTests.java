@@ -0,0 +1,107 @@
+package utils.io;
+
+import io.mangoo.test.TestRunner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith({TestRunner.class})
+public class IOUtilsTests {
+    private static final String BOOKMARKS = """
+            <!DOCTYPE NETSCAPE-Bookmark-file-1>
+            <!-- This is an automatically generated file.
+                 It will be read and overwritten.
+                 DO NOT EDIT! -->
+            <META HTTP-EQUIV="Content-Type" CONTENT="text/html; charset=UTF-8">
+            <TITLE>Bookmarks</TITLE>
+            <H1>Bookmarks</H1>
+            <DL><p>
+                <DT><H3 ADD_DATE="1700000000">Work &amp; Life</H3>
+                <DL><p>
+                    <DT><A HREF="https://svenkubiak.de/?a=1&amp;b=2" ADD_DATE="1700000001">Sven's Blog</A>
+                    <DT><H3>Nested</H3>
+                    <DL><p>
+                        <DT><A HREF="https://mangoo.io">mangoo I/O</A>
+                    </DL><p>
+                    <DT><A HREF="https://github.com">GitHub</A>
+                </DL><p>
+                <DT><A HREF="https://example.com">Top</A>
+            </DL><p>
+            """;
+
+    @Test
+    void testImportItems() {
+        //given
+        List<String> folders = new ArrayList<>();
+        List<Leaf> bookmarks = new ArrayList<>();
+
+        //when
+        long count = IOUtils.importItems(input(BOOKMARKS), (folder, bookmark) -> {
+            folders.add(folder);
+            bookmarks.add(bookmark);
+        });
+
+        //then
+        assertThat(count).isEqualTo(4L);
+        assertThat(folders).containsExactly("Work & Life", "Nested", "Work & Life", null);
+        assertThat(bookmarks.getFirst().getUrl()).isEqualTo("https://svenkubiak.de/?a=1&b=2");
+        assertThat(bookmarks.getFirst().getTitle()).isEqualTo("Sven's Blog");
+        assertThat(bookmarks.getFirst().getAddDate()).isEqualTo(Instant.ofEpochSecond(1700000001L));
+        assertThat(bookmarks.get(1).getTitle()).isEqualTo("mangoo I/O");
+    }
+
+    @Test
+    void testImportRoundTrip() {
+        //given
+        var folder = new Leaf();
+        folder.setFolder(true);
+        folder.setTitle("<Folder>");
+        var bookmark = new Leaf();
+        bookmark.setUrl("https://svenkubiak.de");
+        bookmark.setTitle("\"Quoted\"");
+        folder.addChild(bookmark);
+        List<Leaf> bookmarks = new ArrayList<>();
+
+        //when
+        IOUtils.importItems(input(IOUtils.exportItems(List.of(folder))), (name, leaf) -> bookmarks.add(leaf));
+
+        //then
+        assertThat(bookmarks).hasSize(1);
+        assertThat(bookmarks.getFirst().getTitle()).isEqualTo("\"Quoted\"");
+    }
+
+    @Test
+    void testImportRejectsDangerousContent() {
+        //then
+        assertThatThrownBy(() -> IOUtils.importItems(input("<DL><DT><A HREF=\"javascript:alert(1)\">x</A></DL>"), (folder, leaf) -> {}))
+                .isInstanceOf(SecurityException.class);
+        assertThatThrownBy(() -> IOUtils.importItems(input("<DL><DT><A HREF=\"https://a.b\" OnClick=\"x()\">x</A></DL>"), (folder, leaf) -> {}))
+                .isInstanceOf(SecurityException.class);
+        assertThatThrownBy(() -> IOUtils.importItems(input("<DL><script>alert(1)</script></DL>"), (folder, leaf) -> {}))
+                .isInstanceOf(SecurityException.class);
+        assertThatThrownBy(() -> IOUtils.importItems(input("just some text"), (folder, leaf) -> {}))
+                .isInstanceOf(SecurityException.class);
+    }
+
+    @Test
+    void testImportRejectsDeepNesting() {
+        //given
+        String nested = "<DL>".repeat(100);
+
+        //then
+        assertThatThrownBy(() -> IOUtils.importItems(input(nested), (folder, leaf) -> {}))
+                .isInstanceOf(SecurityException.class);
+    }
+
+    private static ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}